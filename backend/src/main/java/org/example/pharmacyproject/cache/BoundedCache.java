@@ -0,0 +1,161 @@
+package org.example.pharmacyproject.cache;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Size-bounded, read-through LRU cache with a per-entry time to live.
+ * <p>
+ * Loads run outside the lock, so a slow database call never blocks readers of other keys.
+ * Every invalidation bumps a generation counter and a load that started before it is not stored,
+ * which keeps a value read just before a change from being cached after that change.
+ */
+public class BoundedCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    // guarded by this
+    private final LinkedHashMap<K, CachedValue<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    private record CachedValue<V>(V value, long expiresAtNanos) {}
+
+    public BoundedCache(String name, int maxSize, long ttlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache " + name + " needs a positive max size");
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000;
+    }
+
+    /**
+     * Returns the cached value, or loads, caches and returns it. Null results are not cached.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            CachedValue<V> cached = entries.get(key);
+            if (cached != null) {
+                if (cached.expiresAtNanos() - System.nanoTime() > 0) {
+                    hits++;
+                    return cached.value();
+                }
+                entries.remove(key);
+                expirations++;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    store(key, loaded);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the cached values of the keys, loading every miss with one call to the bulk loader.
+     * Keys the loader does not return are absent from the result and are not cached.
+     */
+    public Map<K, V> getAll(Collection<? extends K> keys, Function<? super Set<K>, ? extends Map<K, V>> bulkLoader) {
+        Map<K, V> found = new LinkedHashMap<>();
+        Set<K> missing = new LinkedHashSet<>();
+        long loadGeneration;
+        synchronized (this) {
+            long now = System.nanoTime();
+            for (K key : keys) {
+                CachedValue<V> cached = entries.get(key);
+                if (cached != null && cached.expiresAtNanos() - now > 0) {
+                    hits++;
+                    found.put(key, cached.value());
+                    continue;
+                }
+                if (cached != null) {
+                    entries.remove(key);
+                    expirations++;
+                }
+                if (missing.add(key)) {
+                    misses++;
+                }
+            }
+            loadGeneration = generation;
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+        Map<K, V> loaded = bulkLoader.apply(missing);
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                loaded.forEach((key, value) -> {
+                    if (value != null) {
+                        store(key, value);
+                    }
+                });
+            }
+        }
+        found.putAll(loaded);
+        return found;
+    }
+
+    /**
+     * Returns the cached value without loading, or null.
+     */
+    public synchronized V getIfPresent(K key) {
+        CachedValue<V> cached = entries.get(key);
+        if (cached != null && cached.expiresAtNanos() - System.nanoTime() <= 0) {
+            entries.remove(key);
+            expirations++;
+            cached = null;
+        }
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return cached.value();
+    }
+
+    public synchronized void put(K key, V value) {
+        store(key, value);
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(name, entries.size(), maxSize, hits, misses, evictions, expirations);
+    }
+
+    private void store(K key, V value) {
+        entries.put(key, new CachedValue<>(value, System.nanoTime() + ttlNanos));
+        Iterator<Map.Entry<K, CachedValue<V>>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+}
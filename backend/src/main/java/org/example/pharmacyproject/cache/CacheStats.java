@@ -0,0 +1,18 @@
+package org.example.pharmacyproject.cache;
+
+/**
+ * Point-in-time counters of a {@link BoundedCache}.
+ */
+public record CacheStats(String name,
+                         int size,
+                         int maxSize,
+                         long hits,
+                         long misses,
+                         long evictions,
+                         long expirations) {
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
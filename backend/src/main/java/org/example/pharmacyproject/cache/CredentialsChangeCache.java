@@ -0,0 +1,66 @@
+package org.example.pharmacyproject.cache;
+
+import org.example.pharmacyproject.events.UserChangedEvent;
+import org.example.pharmacyproject.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * When each user's credentials last changed, so an access token issued before a password change,
+ * a password reset or the user's deletion stops authenticating, even when the principal is built
+ * from the token's claims alone.
+ * <p>
+ * Costs one indexed lookup per user per TTL. An entry is dropped after the committing transaction
+ * of a change on this node; other nodes pick the change up within the TTL, which is therefore the
+ * longest a revoked token can still be used there.
+ */
+@Component
+public class CredentialsChangeCache {
+
+    // epoch seconds; a deleted user revokes every token, an unchanged one none
+    private static final long DELETED = Long.MAX_VALUE;
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final UserRepository userRepository;
+    private final BoundedCache<Long, Long> cache;
+
+    public CredentialsChangeCache(UserRepository userRepository,
+                                  @Value("${app.cache.credentials.max-size:10000}") int maxSize,
+                                  @Value("${app.cache.credentials.ttl-ms:30000}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.cache = new BoundedCache<>("credentials", maxSize, ttlMillis);
+    }
+
+    /**
+     * @return true when the user is gone or changed credentials after the token was issued
+     */
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        long changedAt = cache.get(userId, this::load);
+        if (changedAt == NEVER) {
+            return false;
+        }
+        // iat only has whole seconds, so a token issued in the second of the change stays valid
+        return issuedAt == null || issuedAt.getTime() / 1000 < changedAt;
+    }
+
+    private Long load(Long userId) {
+        return userRepository.findCredentialsById(userId)
+                .map(credentials -> credentials.credentialsChangedAt() == null
+                        ? NEVER
+                        : credentials.credentialsChangedAt().atZone(ZoneId.systemDefault()).toEpochSecond())
+                .orElse(DELETED);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        cache.invalidate(event.getUserId());
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
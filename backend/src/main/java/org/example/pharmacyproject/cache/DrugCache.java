@@ -0,0 +1,87 @@
+package org.example.pharmacyproject.cache;
+
+import org.example.pharmacyproject.entities.Drug;
+import org.example.pharmacyproject.events.DrugCatalogInvalidatedEvent;
+import org.example.pharmacyproject.events.DrugChangedEvent;
+import org.example.pharmacyproject.repositories.DrugRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Read-through cache in front of {@link DrugRepository#findById}.
+ * <p>
+ * It holds Drug entities, never DTOs: Drug has no setters, and the public and full views are mapped
+ * from the same entity on every call, so one view can never be served in place of the other.
+ */
+@Component
+public class DrugCache {
+
+    // keeps each IN (...) list well below driver and optimizer limits
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    private final DrugRepository drugRepository;
+    private final BoundedCache<Long, Drug> cache;
+
+    public DrugCache(DrugRepository drugRepository,
+                     @Value("${app.cache.drugs.max-size:10000}") int maxSize,
+                     @Value("${app.cache.drugs.ttl-ms:600000}") long ttlMillis) {
+        this.drugRepository = drugRepository;
+        this.cache = new BoundedCache<>("drugs", maxSize, ttlMillis);
+    }
+
+    public Optional<Drug> findById(Long id) {
+        return Optional.ofNullable(cache.get(id, key -> drugRepository.findById(key).orElse(null)));
+    }
+
+    /**
+     * Cached drugs for the ids; the misses are loaded with one {@code WHERE id IN (...)} query per
+     * {@value #IN_CHUNK_SIZE} ids. Ids that do not exist are absent from the result.
+     */
+    public Map<Long, Drug> findAllById(Collection<Long> ids) {
+        return cache.getAll(ids, this::loadAll);
+    }
+
+    private Map<Long, Drug> loadAll(Set<Long> ids) {
+        List<Long> pending = new ArrayList<>(ids);
+        Map<Long, Drug> loaded = new HashMap<>();
+        for (int from = 0; from < pending.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = pending.subList(from, Math.min(from + IN_CHUNK_SIZE, pending.size()));
+            for (Drug drug : drugRepository.findAllById(chunk)) {
+                loaded.put(drug.getId(), drug);
+            }
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDrugChanged(DrugChangedEvent event) {
+        invalidate(event.getDrugId());
+    }
+
+    @EventListener
+    public void onCatalogInvalidated(DrugCatalogInvalidatedEvent event) {
+        invalidateAll();
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.pharmacyproject.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.pharmacyproject.catalog.CatalogVersion;
+import org.example.pharmacyproject.services.PublicDrugService;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the serialized body of GET /api/public/drugs, plus a gzip copy and a strong ETag,
+ * for the current catalog version. Requests between catalog changes neither query the database
+ * nor run Jackson.
+ */
+@Component
+public class PublicCatalogResponseCache {
+
+    private final PublicDrugService publicDrugService;
+    private final ObjectMapper objectMapper;
+    private final CatalogVersion catalogVersion;
+
+    private volatile SerializedResponse current;
+
+    public PublicCatalogResponseCache(PublicDrugService publicDrugService,
+                                      ObjectMapper objectMapper,
+                                      CatalogVersion catalogVersion) {
+        this.publicDrugService = publicDrugService;
+        this.objectMapper = objectMapper;
+        this.catalogVersion = catalogVersion;
+    }
+
+    public SerializedResponse get() {
+        SerializedResponse cached = current;
+        if (cached != null && cached.version() == catalogVersion.current()) {
+            return cached;
+        }
+        synchronized (this) {
+            // read the version before the data: a change landing mid-build just triggers another build
+            long version = catalogVersion.current();
+            cached = current;
+            if (cached == null || cached.version() != version) {
+                cached = build(version);
+                current = cached;
+            }
+            return cached;
+        }
+    }
+
+    private SerializedResponse build(long version) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(publicDrugService.listPublicDrugs());
+            return new SerializedResponse(version, json, gzip(json), etagOf(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize public drug catalog", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
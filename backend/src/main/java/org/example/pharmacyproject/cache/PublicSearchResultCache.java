@@ -0,0 +1,122 @@
+package org.example.pharmacyproject.cache;
+
+import org.example.pharmacyproject.catalog.CatalogVersion;
+import org.example.pharmacyproject.commonTypes.SearchMode;
+import org.example.pharmacyproject.dosage.DosageFilter;
+import org.example.pharmacyproject.dtos.drugs.DrugDTO;
+import org.example.pharmacyproject.services.PublicDrugService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Result cache for GET /api/public/drugs/search, keyed on the normalized query plus mode, filters and page.
+ * <p>
+ * "  Ibuprofen   400 " and "ibuprofen 400" share an entry. Concurrent misses for one key are
+ * coalesced so only the first request runs the search and the rest wait for its result. Every
+ * cached result remembers the catalog version it was computed at and is ignored once the version
+ * moves, and the first request to see a new version drops all entries. Results of the stand-in scan
+ * used while the search indexes load are served but never cached, so they do not outlive the load.
+ */
+@Component
+public class PublicSearchResultCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final PublicDrugService publicDrugService;
+    private final CatalogVersion catalogVersion;
+    private final BoundedCache<SearchKey, CachedResult> results;
+    private final ConcurrentHashMap<InFlightKey, CompletableFuture<List<DrugDTO>>> inFlight = new ConcurrentHashMap<>();
+
+    private volatile long cachedVersion = -1;
+
+    private record SearchKey(String query, SearchMode mode, boolean explain, DosageFilter dosage, int page) {}
+
+    private record InFlightKey(long version, SearchKey key) {}
+
+    private record CachedResult(long version, List<DrugDTO> drugs) {}
+
+    public PublicSearchResultCache(PublicDrugService publicDrugService,
+                                   CatalogVersion catalogVersion,
+                                   @Value("${app.cache.search.max-size:1000}") int maxSize,
+                                   @Value("${app.cache.search.ttl-ms:60000}") long ttlMillis) {
+        this.publicDrugService = publicDrugService;
+        this.catalogVersion = catalogVersion;
+        this.results = new BoundedCache<>("search", maxSize, ttlMillis);
+    }
+
+    /**
+     * Same contract as {@link PublicDrugService#searchPublicDrugs}; the returned list is shared and unmodifiable.
+     */
+    public List<DrugDTO> search(String query, SearchMode mode, boolean explain, DosageFilter dosage, int page) {
+        long version = catalogVersion.current();
+        if (version != cachedVersion) {
+            dropStale(version);
+        }
+        SearchKey key = new SearchKey(normalize(query), mode, explain, dosage, page);
+        CachedResult cached = results.getIfPresent(key);
+        if (cached != null && cached.version() == version) {
+            return cached.drugs();
+        }
+
+        InFlightKey flightKey = new InFlightKey(version, key);
+        CompletableFuture<List<DrugDTO>> flight = new CompletableFuture<>();
+        CompletableFuture<List<DrugDTO>> running = inFlight.putIfAbsent(flightKey, flight);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            // checked before searching: an index that becomes ready meanwhile only costs a missed put
+            boolean cacheable = key.query().isEmpty() || publicDrugService.isSearchReady(mode);
+            List<DrugDTO> drugs = List.copyOf(publicDrugService.searchPublicDrugs(key.query(), mode, explain, dosage, page));
+            if (cacheable) {
+                results.put(key, new CachedResult(version, drugs));
+            }
+            flight.complete(drugs);
+            return drugs;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    public CacheStats stats() {
+        return results.stats();
+    }
+
+    /**
+     * Trims, lowercases and collapses runs of whitespace; null becomes the empty query.
+     */
+    static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(query.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    private synchronized void dropStale(long version) {
+        if (version > cachedVersion) {
+            results.invalidateAll();
+            cachedVersion = version;
+        }
+    }
+
+    private static List<DrugDTO> await(CompletableFuture<List<DrugDTO>> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
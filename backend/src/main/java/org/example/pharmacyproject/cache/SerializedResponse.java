@@ -0,0 +1,86 @@
+package org.example.pharmacyproject.cache;
+
+import java.util.Locale;
+
+/**
+ * A response body serialized once and replayed byte-for-byte.
+ *
+ * @param version catalog version the body was built from
+ * @param json    UTF-8 JSON body
+ * @param gzip    the same body, gzip-compressed
+ * @param etag    strong ETag (quoted) derived from the JSON bytes
+ */
+public record SerializedResponse(long version, byte[] json, byte[] gzip, String etag) {
+
+    /**
+     * @return strong ETag of the gzip body: a different content-coding is a different
+     *         representation, so it must not share the identity body's tag
+     */
+    public String gzipEtag() {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    /**
+     * @return the ETag of the identity or the gzip body
+     */
+    public String etag(boolean gzipped) {
+        return gzipped ? gzipEtag() : etag;
+    }
+
+    /**
+     * @return true when an If-None-Match header value names the ETag of the chosen representation
+     */
+    public boolean matches(String ifNoneMatch, boolean gzipped) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String current = etag(gzipped);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                // If-None-Match uses weak comparison
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true when an Accept-Encoding header value accepts gzip with a non-zero q-value,
+     *         either by name or through {@code *}; an explicit {@code gzip;q=0} refuses it
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") || param.startsWith("Q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = gzip == null ? q : Math.max(gzip, q);
+            } else if (coding.equals("*")) {
+                wildcard = q;
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return wildcard != null && wildcard > 0;
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.pharmacyproject.cache;
+
+import org.example.pharmacyproject.events.UserChangedEvent;
+import org.example.pharmacyproject.security.AuthenticatedUser;
+import org.example.pharmacyproject.security.CustomUserDetailsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Short-lived cache of principals by email, for requests whose access token cannot be trusted on
+ * its own (tokens issued before the id claim, or {@code app.security.jwt.trust-claims=false}).
+ * <p>
+ * Entries never hold the password hash. They are dropped after the committing transaction of a
+ * password change or user deletion; the short TTL bounds how long a role change made elsewhere
+ * (e.g. directly in the database) takes to show.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final CustomUserDetailsService userDetailsService;
+    private final BoundedCache<String, AuthenticatedUser> cache;
+
+    public UserPrincipalCache(CustomUserDetailsService userDetailsService,
+                              @Value("${app.cache.users.max-size:10000}") int maxSize,
+                              @Value("${app.cache.users.ttl-ms:30000}") long ttlMillis) {
+        this.userDetailsService = userDetailsService;
+        this.cache = new BoundedCache<>("users", maxSize, ttlMillis);
+    }
+
+    /**
+     * @return the user's principal, or null when no user has that email
+     */
+    public AuthenticatedUser findByEmail(String email) {
+        return cache.get(email, this::load);
+    }
+
+    private AuthenticatedUser load(String email) {
+        try {
+            return userDetailsService.loadUserByUsername(email).withoutCredentials();
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        cache.invalidate(event.getEmail());
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.pharmacyproject.cache;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * Claims of recently verified access tokens, so a client sending the same token on every call
+ * is parsed and HMAC-checked once rather than per request.
+ * <p>
+ * Keyed by the SHA-256 of the token, never the token itself. A cached token is only served until
+ * its own {@code exp}, whatever the cache TTL; tokens that fail verification are not cached.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final BoundedCache<String, Claims> cache;
+
+    public VerifiedTokenCache(@Value("${app.cache.tokens.max-size:10000}") int maxSize,
+                              @Value("${app.cache.tokens.ttl-ms:300000}") long ttlMillis) {
+        this.cache = new BoundedCache<>("tokens", maxSize, ttlMillis);
+    }
+
+    /**
+     * @param verifier parses and verifies the token, returning null when it is invalid
+     * @return the token's claims, or null when it is invalid or expired
+     */
+    public Claims get(String token, Function<String, Claims> verifier) {
+        String key = hash(token);
+        Claims claims = cache.get(key, ignored -> verifier.apply(token));
+        if (claims != null && claims.getExpiration() != null && !claims.getExpiration().after(new Date())) {
+            cache.invalidate(key);
+            return null;
+        }
+        return claims;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
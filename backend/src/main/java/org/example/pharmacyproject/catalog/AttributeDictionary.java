@@ -0,0 +1,73 @@
+package org.example.pharmacyproject.catalog;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only table mapping a low-cardinality string (a drug type, a manufacturer) to a small int code.
+ * <p>
+ * Every in-memory structure stores the code instead of its own String, and the one String per
+ * distinct value lives here. Codes are never reused or removed, so a code read from any snapshot
+ * always decodes to the same value. {@code null} encodes as {@value #NULL_CODE}.
+ */
+public final class AttributeDictionary {
+
+    public static final int NULL_CODE = -1;
+
+    private final String name;
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private int size;   // guarded by this
+
+    public AttributeDictionary(String name) {
+        this.name = name;
+    }
+
+    public int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            String[] current = values;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+            }
+            // store the value before the code becomes visible through the map
+            current[size] = value;
+            values = current;
+            codes.put(value, size);
+            return size++;
+        }
+    }
+
+    /**
+     * @return the code of a value already in the table, or {@value #NULL_CODE}; never adds
+     */
+    public int codeOf(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        return code == null ? NULL_CODE : code;
+    }
+
+    public String decode(int code) {
+        return code == NULL_CODE ? null : values[code];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return codes.size();
+    }
+}
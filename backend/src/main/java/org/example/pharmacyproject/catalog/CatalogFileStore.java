@@ -0,0 +1,140 @@
+package org.example.pharmacyproject.catalog;
+
+import jakarta.annotation.PreDestroy;
+import org.example.pharmacyproject.entities.Drug;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Owns the on-disk {@link MappedCatalog}: maps the file left by the previous run as soon as the
+ * bean is created, and rewrites it in the background after the catalog changes.
+ * <p>
+ * Disabled when {@code app.catalog.file.path} is blank. The database stays the source of truth;
+ * the file only lets a restarting node answer drug reads before its first database load, and lets
+ * {@code app.catalog.file.off-heap=true} serve the catalog without holding it on the heap.
+ */
+@Component
+public class CatalogFileStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogFileStore.class);
+
+    private final Path path;
+    private final boolean offHeap;
+    private final long debounceMs;
+    private final ScheduledExecutorService writeExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-file-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean writePending = new AtomicBoolean();
+
+    private volatile MappedCatalog current;
+    private volatile Runnable pendingWrite;
+
+    public CatalogFileStore(@Value("${app.catalog.file.path:}") String path,
+                            @Value("${app.catalog.file.off-heap:false}") boolean offHeap,
+                            @Value("${app.catalog.file.write-debounce-ms:2000}") long debounceMs) {
+        this.path = path == null || path.isBlank() ? null : Path.of(path.trim());
+        this.offHeap = offHeap && this.path != null;
+        this.debounceMs = debounceMs;
+        if (this.path != null && Files.exists(this.path)) {
+            try {
+                current = MappedCatalog.open(this.path);
+                log.info("Catalog file {} mapped: {} drugs written at {}",
+                        this.path, current.size(), current.getWrittenAtMillis());
+            } catch (IOException | IllegalArgumentException e) {
+                // a stale or foreign file is simply replaced on the next write
+                log.warn("Ignoring unreadable catalog file {}: {}", this.path, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeExecutor.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return path != null;
+    }
+
+    /**
+     * @return true when the catalog should be served from the file instead of heap arrays
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * @return the mapped file, or null when disabled or not written yet
+     */
+    public MappedCatalog current() {
+        return current;
+    }
+
+    /**
+     * Writes the drugs now, on the calling thread, and maps the new file.
+     *
+     * @param drugs in ascending id order
+     */
+    public synchronized MappedCatalog writeNow(List<Drug> drugs) throws IOException {
+        long started = System.nanoTime();
+        MappedCatalog.write(path, drugs);
+        MappedCatalog written = MappedCatalog.open(path);
+        current = written;
+        log.info("Catalog file {} written: {} drugs, {} bytes in {} ms", path, written.size(),
+                Files.size(path), (System.nanoTime() - started) / 1_000_000);
+        return written;
+    }
+
+    /**
+     * Schedules a rewrite from the given source unless one is already pending, so a burst of
+     * changes costs one write. The source is read when the write runs, not when it is requested.
+     */
+    public void requestWrite(Supplier<List<Drug>> source) {
+        requestRewrite(() -> {
+            try {
+                writeNow(source.get());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Like {@link #requestWrite}, for a caller that does the write itself through {@link #writeNow},
+     * e.g. to hold its own lock around reading the source and swapping in the result.
+     */
+    public void requestRewrite(Runnable rewrite) {
+        if (path == null) {
+            return;
+        }
+        pendingWrite = rewrite;
+        if (writePending.compareAndSet(false, true)) {
+            writeExecutor.schedule(this::writePending, debounceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void writePending() {
+        writePending.set(false);
+        try {
+            pendingWrite.run();
+        } catch (RuntimeException e) {
+            // keep serving the previous file; the next change retries
+            log.warn("Catalog file write failed", e);
+        }
+    }
+}
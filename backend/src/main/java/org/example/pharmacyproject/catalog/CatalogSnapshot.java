@@ -0,0 +1,516 @@
+package org.example.pharmacyproject.catalog;
+
+import org.example.pharmacyproject.dosage.DosageParser;
+import org.example.pharmacyproject.entities.Drug;
+import org.example.pharmacyproject.events.DrugCatalogInvalidatedEvent;
+import org.example.pharmacyproject.events.DrugChangedEvent;
+import org.example.pharmacyproject.repositories.DrugRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+
+/**
+ * The whole drug catalog as an immutable pair of arrays sorted by id, shared by every read path.
+ * <p>
+ * Readers take the current {@link State} with one volatile read and never lock. Writers build a
+ * new State (a full reload, or a copy with one drug replaced or removed) and publish it with a
+ * single volatile write, so a reload never makes a reader wait and a reader never sees half of one.
+ * <p>
+ * Drugs are held as compact {@link Entry} rows whose type and manufacturer are codes into two shared
+ * {@link AttributeDictionary} tables, so a repeated value costs four bytes per drug instead of a
+ * String. Readers still get ordinary {@link Drug} objects, built from the entry when asked for.
+ * <p>
+ * With a {@link CatalogFileStore} configured, reads are served from the mapped catalog file until the
+ * first database load completes, so a restarting node answers at once without querying MySQL. In
+ * off-heap mode they are served from the file permanently, and only the drugs changed since the
+ * file was written stay on the heap. Either way a change made while the file is served is recorded
+ * in a {@link FileOverlay} that every read checks before the file, so it is visible as soon as
+ * {@link CatalogVersion} moves. Off-heap, a debounced rewrite folds the overlay into a new file
+ * (from the old file, without querying the database); before the first load the overlay is applied
+ * on top of what the load reads.
+ * <p>
+ * Updates are copy-on-write: on the heap every single-drug change copies the entry array, and the id
+ * array too when a drug is added or removed, so one change costs O(n) time and a second array of
+ * garbage (about 12 bytes per drug). That suits a catalog edited a few times a second at most; bulk
+ * writes should publish {@link DrugCatalogInvalidatedEvent} and take one reload instead.
+ * <p>
+ * Paging is only offered unfiltered. A filtered page over the arrays would decode and test every
+ * skipped drug, which the database's (filter, id) indexes or the facet bitmaps do far better.
+ * <p>
+ * The listeners run first ({@link Ordered#HIGHEST_PRECEDENCE}) so that the snapshot already holds a
+ * change by the time {@link CatalogVersion} moves and version-keyed caches rebuild from it.
+ */
+@Component
+public class CatalogSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    private final DrugRepository drugRepository;
+    private final CatalogFileStore catalogFile;
+    private final AttributeDictionary types = new AttributeDictionary("type");
+    private final AttributeDictionary manufacturers = new AttributeDictionary("manufacturer");
+
+    private volatile State state;
+
+    public CatalogSnapshot(DrugRepository drugRepository, CatalogFileStore catalogFile) {
+        this.drugRepository = drugRepository;
+        this.catalogFile = catalogFile;
+        MappedCatalog previousRun = catalogFile.current();
+        this.state = new State(new long[0], new Entry[0],
+                previousRun == null ? null : new FileOverlay(previousRun, this::toDrug), false, 0, 0, 0);
+    }
+
+    /**
+     * Size of the snapshot currently served, where it is served from ("heap", "file" or "none"),
+     * and how long ago it was swapped in (by a reload or an update).
+     */
+    public record Stats(boolean ready, String source, int size, long builtAtMillis, long ageMillis, long reloads, long updates) {}
+
+    /**
+     * Estimated heap cost per drug of holding loaded entities versus dictionary-encoded entries,
+     * assuming a 64-bit JVM with compressed oops and compact (Latin-1) strings.
+     */
+    public record Footprint(int drugs,
+                            int distinctTypes,
+                            int distinctManufacturers,
+                            long entityBytesPerDrug,
+                            long encodedBytesPerDrug) {}
+
+    /**
+     * One drug as stored in the snapshot. Immutable.
+     */
+    static final class Entry {
+        final long id;
+        final String name;
+        final int type;
+        final int manufacturer;
+        final String dosage;
+        final String description;
+        final boolean prescriptionRequired;
+        // parsed dosage, unboxed; unit, form and frequency are mostly the parser's shared constants
+        final double strength;   // NaN when absent
+        final String strengthUnit;
+        final String form;
+        final String frequency;
+
+        Entry(long id, String name, int type, int manufacturer, String dosage, String description,
+              boolean prescriptionRequired, DosageParser.ParsedDosage parsed) {
+            this.id = id;
+            this.name = name;
+            this.type = type;
+            this.manufacturer = manufacturer;
+            this.dosage = dosage;
+            this.description = description;
+            this.prescriptionRequired = prescriptionRequired;
+            this.strength = parsed.strength() == null ? Double.NaN : parsed.strength();
+            this.strengthUnit = parsed.unit();
+            this.form = parsed.form();
+            this.frequency = parsed.frequency();
+        }
+    }
+
+    private static final class State {
+        final long[] ids;      // ascending
+        final Entry[] drugs;   // parallel to ids
+        final FileOverlay file; // when not null, reads are served from it instead of the arrays
+        final boolean ready;
+        final long builtAtMillis;
+        final long reloads;
+        final long updates;
+
+        State(long[] ids, Entry[] drugs, FileOverlay file, boolean ready, long builtAtMillis, long reloads, long updates) {
+            this.ids = ids;
+            this.drugs = drugs;
+            this.file = file;
+            this.ready = ready;
+            this.builtAtMillis = builtAtMillis;
+            this.reloads = reloads;
+            this.updates = updates;
+        }
+
+        State withFile(FileOverlay file, long updates) {
+            return new State(ids, drugs, file, ready, System.currentTimeMillis(), reloads, updates);
+        }
+
+        int indexOf(long id) {
+            return Arrays.binarySearch(ids, id);
+        }
+    }
+
+    /** Run by StartupWarmup once the application is up. */
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogInvalidated(DrugCatalogInvalidatedEvent event) {
+        reload();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onDrugChanged(DrugChangedEvent event) {
+        if (event.isDelete()) {
+            remove(event.getDrugId());
+        } else {
+            upsert(event.getDrug());
+        }
+    }
+
+    /**
+     * Loads every drug and swaps the result in. Readers keep using the previous snapshot meanwhile.
+     */
+    public synchronized void reload() {
+        long started = System.nanoTime();
+        State previous = state;
+        List<Drug> all = loadSorted();
+        if (!previous.ready && previous.file != null && previous.file.hasChanges()) {
+            // changes recorded while the previous run's file was served; listeners only see
+            // committed changes, so the load already has them unless a newer one is queued behind us
+            all = applyChanges(all, previous.file.changes());
+        }
+        if (catalogFile.isOffHeap()) {
+            try {
+                MappedCatalog written = catalogFile.writeNow(all);
+                state = new State(new long[0], new Entry[0], new FileOverlay(written, this::toDrug),
+                        true, System.currentTimeMillis(), previous.reloads + 1, previous.updates);
+                log.info("Catalog snapshot loaded off-heap: {} drugs in {} ms", written.size(), (System.nanoTime() - started) / 1_000_000);
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not write the catalog file, keeping the catalog on the heap", e);
+            }
+        }
+        long[] ids = new long[all.size()];
+        Entry[] drugs = new Entry[all.size()];
+        for (int i = 0; i < drugs.length; i++) {
+            drugs[i] = encode(all.get(i));
+            ids[i] = drugs[i].id;
+        }
+        state = new State(ids, drugs, null, true, System.currentTimeMillis(), previous.reloads + 1, previous.updates);
+        log.info("Catalog snapshot loaded: {} drugs in {} ms", drugs.length, (System.nanoTime() - started) / 1_000_000);
+        catalogFile.requestWrite(this::all);
+    }
+
+    private List<Drug> loadSorted() {
+        List<Drug> all = new ArrayList<>(drugRepository.findAll());
+        all.sort(Comparator.comparing(Drug::getId));
+        return all;
+    }
+
+    private List<Drug> applyChanges(List<Drug> sorted, NavigableMap<Long, Entry> changes) {
+        List<Drug> merged = new ArrayList<>(sorted.size() + changes.size());
+        Iterator<Map.Entry<Long, Entry>> pending = changes.entrySet().iterator();
+        Map.Entry<Long, Entry> change = pending.hasNext() ? pending.next() : null;
+        for (Drug drug : sorted) {
+            while (change != null && change.getKey() <= drug.getId()) {
+                if (change.getValue() != null) {
+                    merged.add(toDrug(change.getValue()));
+                }
+                boolean replaces = change.getKey() == drug.getId().longValue();
+                change = pending.hasNext() ? pending.next() : null;
+                if (replaces) {
+                    drug = null;
+                    break;
+                }
+            }
+            if (drug != null) {
+                merged.add(drug);
+            }
+        }
+        for (; change != null; change = pending.hasNext() ? pending.next() : null) {
+            if (change.getValue() != null) {
+                merged.add(toDrug(change.getValue()));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Copy-on-write: one array copy per change, see the class comment for the cost.
+     */
+    public synchronized void upsert(Drug drug) {
+        State current = state;
+        Entry entry = encode(drug);
+        if (current.file != null) {
+            state = current.withFile(current.file.with(entry.id, entry), current.updates + 1);
+            fileChanged(state);
+            return;
+        }
+        int idx = current.indexOf(drug.getId());
+        long[] ids;
+        Entry[] drugs;
+        if (idx >= 0) {
+            ids = current.ids;
+            drugs = current.drugs.clone();
+            drugs[idx] = entry;
+        } else {
+            int insertAt = -idx - 1;
+            ids = new long[current.ids.length + 1];
+            drugs = new Entry[current.drugs.length + 1];
+            System.arraycopy(current.ids, 0, ids, 0, insertAt);
+            System.arraycopy(current.drugs, 0, drugs, 0, insertAt);
+            ids[insertAt] = entry.id;
+            drugs[insertAt] = entry;
+            System.arraycopy(current.ids, insertAt, ids, insertAt + 1, current.ids.length - insertAt);
+            System.arraycopy(current.drugs, insertAt, drugs, insertAt + 1, current.drugs.length - insertAt);
+        }
+        state = new State(ids, drugs, null, current.ready, System.currentTimeMillis(), current.reloads, current.updates + 1);
+        fileChanged(state);
+    }
+
+    public synchronized void remove(Long drugId) {
+        State current = state;
+        if (current.file != null) {
+            state = current.withFile(current.file.with(drugId, null), current.updates + 1);
+            fileChanged(state);
+            return;
+        }
+        int idx = current.indexOf(drugId);
+        if (idx < 0) {
+            return;
+        }
+        long[] ids = new long[current.ids.length - 1];
+        Entry[] drugs = new Entry[current.drugs.length - 1];
+        System.arraycopy(current.ids, 0, ids, 0, idx);
+        System.arraycopy(current.drugs, 0, drugs, 0, idx);
+        System.arraycopy(current.ids, idx + 1, ids, idx, ids.length - idx);
+        System.arraycopy(current.drugs, idx + 1, drugs, idx, drugs.length - idx);
+        state = new State(ids, drugs, null, current.ready, System.currentTimeMillis(), current.reloads, current.updates + 1);
+        fileChanged(state);
+    }
+
+    /**
+     * Keeps the catalog file in step with a change. Heap mode rewrites it from the snapshot; off-heap
+     * mode rewrites it from the current file and its overlay. Before the first load the file is left
+     * alone: the change waits in the overlay and the load applies it.
+     */
+    private void fileChanged(State current) {
+        if (!current.ready) {
+            return;
+        }
+        if (current.file != null) {
+            catalogFile.requestRewrite(this::foldOverlay);
+        } else {
+            catalogFile.requestWrite(this::all);
+        }
+    }
+
+    /**
+     * Writes the served file with its overlay applied and swaps it in with an empty overlay. Holds the
+     * lock for the write so no change can slip between the two; listeners wait for it as they do for
+     * a reload.
+     */
+    private synchronized void foldOverlay() {
+        State current = state;
+        if (current.file == null || !current.file.hasChanges()) {
+            return;
+        }
+        try {
+            MappedCatalog written = catalogFile.writeNow(current.file);
+            state = current.withFile(new FileOverlay(written, this::toDrug), current.updates);
+        } catch (IOException | RuntimeException e) {
+            // keep serving the old file and its overlay; the next change retries
+            log.warn("Could not fold {} catalog changes into the catalog file", current.file.changes().size(), e);
+        }
+    }
+
+    /**
+     * The mapped file when reads are served from it (before the first load, or always in off-heap
+     * mode) and it holds every drug as served, i.e. no change is waiting in the overlay. Callers
+     * that get nothing back read through {@link #all()} instead.
+     */
+    public Optional<MappedCatalog> servingFile() {
+        FileOverlay file = state.file;
+        return file != null && !file.hasChanges() ? Optional.of(file.file()) : Optional.empty();
+    }
+
+    /**
+     * @return true once the first full load has completed or a catalog file is mapped;
+     *         until then callers should go to the database
+     */
+    public boolean isReady() {
+        State current = state;
+        return current.ready || current.file != null;
+    }
+
+    public int size() {
+        State current = state;
+        return current.file != null ? current.file.size() : current.drugs.length;
+    }
+
+    public Optional<Drug> findById(long id) {
+        State current = state;
+        if (current.file != null) {
+            return current.file.findById(id);
+        }
+        int idx = current.indexOf(id);
+        return idx >= 0 ? Optional.of(toDrug(current.drugs[idx])) : Optional.empty();
+    }
+
+    /**
+     * Every drug in id order, as an unmodifiable view of one snapshot. Drugs are built on access.
+     */
+    public List<Drug> all() {
+        State current = state;
+        if (current.file != null) {
+            return Collections.unmodifiableList(current.file);
+        }
+        Entry[] drugs = current.drugs;
+        return new AbstractList<>() {
+            @Override
+            public Drug get(int index) {
+                return toDrug(drugs[index]);
+            }
+
+            @Override
+            public int size() {
+                return drugs.length;
+            }
+        };
+    }
+
+    /**
+     * The shared type table; codes from it stay valid for the life of the application.
+     */
+    public AttributeDictionary types() {
+        return types;
+    }
+
+    /**
+     * The shared manufacturer table; codes from it stay valid for the life of the application.
+     */
+    public AttributeDictionary manufacturers() {
+        return manufacturers;
+    }
+
+    /**
+     * Up to {@code limit} drugs with id greater than {@code afterId}, ascending.
+     */
+    public List<Drug> pageAfter(long afterId, int limit) {
+        State current = state;
+        if (current.file != null) {
+            FileOverlay file = current.file;
+            List<Drug> page = new ArrayList<>(Math.min(limit, 64));
+            for (int i = file.countBelow(afterId, true); i < file.size() && page.size() < limit; i++) {
+                page.add(file.get(i));
+            }
+            return page;
+        }
+        int idx = current.indexOf(afterId);
+        int from = idx >= 0 ? idx + 1 : -idx - 1;
+        List<Drug> page = new ArrayList<>(Math.min(limit, 64));
+        for (int i = from; i < current.drugs.length && page.size() < limit; i++) {
+            page.add(toDrug(current.drugs[i]));
+        }
+        return page;
+    }
+
+    /**
+     * Up to {@code limit} drugs with id less than {@code beforeId}, descending.
+     */
+    public List<Drug> pageBefore(long beforeId, int limit) {
+        State current = state;
+        if (current.file != null) {
+            FileOverlay file = current.file;
+            List<Drug> page = new ArrayList<>(Math.min(limit, 64));
+            for (int i = file.countBelow(beforeId, false) - 1; i >= 0 && page.size() < limit; i--) {
+                page.add(file.get(i));
+            }
+            return page;
+        }
+        int idx = current.indexOf(beforeId);
+        int from = (idx >= 0 ? idx : -idx - 1) - 1;
+        List<Drug> page = new ArrayList<>(Math.min(limit, 64));
+        for (int i = from; i >= 0 && page.size() < limit; i--) {
+            page.add(toDrug(current.drugs[i]));
+        }
+        return page;
+    }
+
+    public Stats stats() {
+        State current = state;
+        long age = current.ready ? System.currentTimeMillis() - current.builtAtMillis : 0;
+        boolean fromFile = current.file != null;
+        String source = fromFile ? "file" : current.ready ? "heap" : "none";
+        return new Stats(current.ready || fromFile, source, fromFile ? current.file.size() : current.drugs.length,
+                current.builtAtMillis, age, current.reloads, current.updates);
+    }
+
+    /**
+     * Walks the current snapshot and estimates what it costs per drug, compared with holding the
+     * same drugs as loaded entities, where every row brings its own type and manufacturer Strings,
+     * a boxed id and a boxed strength. Name, dosage and description cost the same either way.
+     */
+    public Footprint footprint() {
+        State current = state;
+        int n = current.drugs.length;
+        if (n == 0) {
+            return new Footprint(0, types.size(), manufacturers.size(), 0, 0);
+        }
+        long entityBytes = 0;
+        long encodedBytes = 0;
+        for (Entry entry : current.drugs) {
+            long shared = stringBytes(entry.name) + stringBytes(entry.dosage) + stringBytes(entry.description);
+            Drug drug = toDrug(entry);
+            entityBytes += ENTITY_BYTES + BOXED_BYTES + shared
+                    + stringBytes(drug.getType()) + stringBytes(drug.getManufacturer())
+                    + (drug.getStrength() == null ? 0 : BOXED_BYTES);
+            encodedBytes += ENTRY_BYTES + shared;
+        }
+        long dictionaryBytes = 0;
+        for (AttributeDictionary dictionary : new AttributeDictionary[] { types, manufacturers }) {
+            for (int code = 0; code < dictionary.size(); code++) {
+                // the String, its map entry and boxed code, and the array slot
+                dictionaryBytes += stringBytes(dictionary.decode(code)) + 32 + BOXED_BYTES + 4;
+            }
+        }
+        return new Footprint(n, types.size(), manufacturers.size(),
+                SLOT_BYTES + entityBytes / n,
+                SLOT_BYTES + (encodedBytes + dictionaryBytes) / n);
+    }
+
+    // object layout estimates for a 64-bit JVM with compressed oops
+    private static final int ENTITY_BYTES = 56;   // header + 10 references + boolean, aligned
+    private static final int ENTRY_BYTES = 64;    // header + long + double + 6 references + 2 ints + boolean, aligned
+    private static final int BOXED_BYTES = 16;    // Long, Double or Integer
+    private static final int SLOT_BYTES = 12;     // long id + reference in the snapshot arrays
+
+    private static long stringBytes(String value) {
+        if (value == null) {
+            return 0;
+        }
+        // String object plus its Latin-1 byte[] (16-byte header), each aligned to 8
+        return 24 + ((16 + value.length() + 7) / 8) * 8;
+    }
+
+    private Entry encode(Drug drug) {
+        return new Entry(drug.getId(), drug.getName(), types.encode(drug.getType()),
+                manufacturers.encode(drug.getManufacturer()), drug.getDosage(), drug.getDescription(),
+                drug.isPrescriptionRequired(),
+                new DosageParser.ParsedDosage(drug.getStrength(), drug.getStrengthUnit(), drug.getForm(), drug.getFrequency()));
+    }
+
+    private Drug toDrug(Entry entry) {
+        return new Drug(entry.id, entry.name, types.decode(entry.type), manufacturers.decode(entry.manufacturer),
+                entry.dosage, entry.description, entry.prescriptionRequired,
+                new DosageParser.ParsedDosage(Double.isNaN(entry.strength) ? null : entry.strength,
+                        entry.strengthUnit, entry.form, entry.frequency));
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.pharmacyproject.catalog;
+
+import org.example.pharmacyproject.events.DrugCatalogInvalidatedEvent;
+import org.example.pharmacyproject.events.DrugChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Monotonic counter bumped after every committed drug change.
+ * Anything derived from the whole catalog can remember the version it was built at and
+ * know it is stale as soon as the counter moves.
+ * <p>
+ * The counter starts from the startup time in microseconds, so versions keep increasing across
+ * restarts and a version handed out by an earlier run is never mistaken for a current one. The last
+ * {@code app.catalog.changes.retained} changes are kept with the id they touched, which lets
+ * {@link #changesSince} answer delta-sync requests. Bulk writes carry no ids; they count as a reset
+ * that every older version has to resync across.
+ */
+@Component
+public class CatalogVersion {
+
+    /**
+     * Drugs touched after some version, last change per id winning. When {@code fullResync} is set the
+     * id sets are empty and the client has to reload the whole catalog.
+     */
+    public record Changes(long version, boolean fullResync, long[] upserted, long[] deleted) {}
+
+    // ring buffer of the retained changes, oldest at head; all guarded by this
+    private final long[] versions;
+    private final long[] drugIds;
+    private final boolean[] deletes;
+    private int head;
+    private int size;
+    // changes up to and including this version are not in the log
+    private long oldestServable;
+    private volatile long version;
+
+    public CatalogVersion(@Value("${app.catalog.changes.retained:10000}") int retained) {
+        if (retained <= 0) {
+            throw new IllegalArgumentException("app.catalog.changes.retained must be positive");
+        }
+        this.versions = new long[retained];
+        this.drugIds = new long[retained];
+        this.deletes = new boolean[retained];
+        this.version = System.currentTimeMillis() * 1000;
+        this.oldestServable = version;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDrugChanged(DrugChangedEvent event) {
+        record(event.getDrugId(), event.isDelete());
+    }
+
+    @EventListener
+    public void onCatalogInvalidated(DrugCatalogInvalidatedEvent event) {
+        reset();
+    }
+
+    public long current() {
+        return version;
+    }
+
+    /**
+     * Everything that changed after {@code since}. A version older than the retained log, older than
+     * the last bulk write, or from the future (another node or a clock step) requires a full resync.
+     */
+    public synchronized Changes changesSince(long since) {
+        long current = version;
+        if (since < oldestServable || since > current) {
+            return new Changes(current, true, new long[0], new long[0]);
+        }
+        Map<Long, Boolean> latest = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) % versions.length;
+            if (versions[slot] > since) {
+                latest.remove(drugIds[slot]);
+                latest.put(drugIds[slot], deletes[slot]);
+            }
+        }
+        long[] upserted = latest.entrySet().stream().filter(e -> !e.getValue()).mapToLong(Map.Entry::getKey).toArray();
+        long[] deleted = latest.entrySet().stream().filter(Map.Entry::getValue).mapToLong(Map.Entry::getKey).toArray();
+        return new Changes(current, false, upserted, deleted);
+    }
+
+    private synchronized void record(long drugId, boolean delete) {
+        long next = version + 1;
+        if (size == versions.length) {
+            // the evicted change can no longer be served
+            oldestServable = versions[head];
+            head = (head + 1) % versions.length;
+            size--;
+        }
+        int slot = (head + size) % versions.length;
+        versions[slot] = next;
+        drugIds[slot] = drugId;
+        deletes[slot] = delete;
+        size++;
+        version = next;
+    }
+
+    private synchronized void reset() {
+        head = 0;
+        size = 0;
+        version = version + 1;
+        oldestServable = version;
+    }
+}
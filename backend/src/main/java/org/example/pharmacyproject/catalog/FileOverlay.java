@@ -0,0 +1,149 @@
+package org.example.pharmacyproject.catalog;
+
+import org.example.pharmacyproject.entities.Drug;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * A mapped catalog file with the changes made since it was written laid over it, as one list of
+ * drugs in id order.
+ * <p>
+ * Changed drugs are held on the heap, in a sorted map from id to the new {@link CatalogSnapshot.Entry}
+ * or to null for a deleted drug; every other drug is read from the file. A changed drug that is also
+ * in the file hides its file record and takes its place in the list, so positions stay exact and
+ * the list supports random access. Immutable: each change makes a new overlay, which costs
+ * O(changes) and never touches the file, and the next file write folds the changes in.
+ */
+final class FileOverlay extends AbstractList<Drug> {
+
+    private final MappedCatalog file;
+    private final NavigableMap<Long, CatalogSnapshot.Entry> changes;
+    private final Function<CatalogSnapshot.Entry, Drug> decoder;
+    private final int[] hidden;                       // file positions shadowed by a change, ascending
+    private final long[] addedIds;                    // ids of the changed drugs that exist, ascending
+    private final CatalogSnapshot.Entry[] added;      // parallel to addedIds
+    private final int[] addedAt;                      // list position of each added drug, ascending
+    private final int size;
+
+    FileOverlay(MappedCatalog file, Function<CatalogSnapshot.Entry, Drug> decoder) {
+        this(file, Collections.emptyNavigableMap(), decoder);
+    }
+
+    private FileOverlay(MappedCatalog file, NavigableMap<Long, CatalogSnapshot.Entry> changes,
+                        Function<CatalogSnapshot.Entry, Drug> decoder) {
+        this.file = file;
+        this.changes = changes;
+        this.decoder = decoder;
+        int[] hiddenPositions = new int[changes.size()];
+        int hiddenCount = 0;
+        int addedCount = 0;
+        for (Map.Entry<Long, CatalogSnapshot.Entry> change : changes.entrySet()) {
+            int idx = file.indexOf(change.getKey());
+            if (idx >= 0) {
+                hiddenPositions[hiddenCount++] = idx;
+            }
+            if (change.getValue() != null) {
+                addedCount++;
+            }
+        }
+        this.hidden = Arrays.copyOf(hiddenPositions, hiddenCount);
+        this.addedIds = new long[addedCount];
+        this.added = new CatalogSnapshot.Entry[addedCount];
+        this.addedAt = new int[addedCount];
+        int j = 0;
+        for (CatalogSnapshot.Entry entry : changes.values()) {
+            if (entry == null) {
+                continue;
+            }
+            // file records before the drug, less the hidden ones, plus the added drugs before it
+            int idx = file.indexOf(entry.id);
+            int filePosition = idx >= 0 ? idx : -idx - 1;
+            addedIds[j] = entry.id;
+            added[j] = entry;
+            addedAt[j] = filePosition - hiddenBefore(filePosition) + j;
+            j++;
+        }
+        this.size = file.size() - hiddenCount + addedCount;
+    }
+
+    /**
+     * @param entry the new state of the drug, or null when it was deleted
+     */
+    FileOverlay with(long id, CatalogSnapshot.Entry entry) {
+        NavigableMap<Long, CatalogSnapshot.Entry> next = new TreeMap<>(changes);
+        next.put(id, entry);
+        return new FileOverlay(file, Collections.unmodifiableNavigableMap(next), decoder);
+    }
+
+    MappedCatalog file() {
+        return file;
+    }
+
+    /**
+     * @return the changes not yet in the file, deleted drugs mapping to null
+     */
+    NavigableMap<Long, CatalogSnapshot.Entry> changes() {
+        return changes;
+    }
+
+    boolean hasChanges() {
+        return !changes.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Drug get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size + " drugs");
+        }
+        int found = Arrays.binarySearch(addedAt, index);
+        if (found >= 0) {
+            return decoder.apply(added[found]);
+        }
+        // the (index - added before it)-th visible file record
+        int position = index - (-found - 1);
+        for (int hiddenPosition : hidden) {
+            if (hiddenPosition > position) {
+                break;
+            }
+            position++;
+        }
+        return file.drugAt(position);
+    }
+
+    Optional<Drug> findById(long id) {
+        if (changes.containsKey(id)) {
+            CatalogSnapshot.Entry entry = changes.get(id);
+            return entry == null ? Optional.empty() : Optional.of(decoder.apply(entry));
+        }
+        return file.findById(id);
+    }
+
+    /**
+     * @return how many drugs in the list have an id below {@code id}, or up to and including it when
+     *         {@code inclusive}; that is the list position where drugs after the bound start
+     */
+    int countBelow(long id, boolean inclusive) {
+        int extra = inclusive ? 1 : 0;
+        int idx = file.indexOf(id);
+        int fileBelow = idx >= 0 ? idx + extra : -idx - 1;
+        int addedIdx = Arrays.binarySearch(addedIds, id);
+        return fileBelow - hiddenBefore(fileBelow) + (addedIdx >= 0 ? addedIdx + extra : -addedIdx - 1);
+    }
+
+    private int hiddenBefore(int filePosition) {
+        int idx = Arrays.binarySearch(hidden, filePosition);
+        return idx >= 0 ? idx : -idx - 1;
+    }
+}
@@ -0,0 +1,372 @@
+package org.example.pharmacyproject.catalog;
+
+import org.example.pharmacyproject.dosage.DosageParser;
+import org.example.pharmacyproject.entities.Drug;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The drug catalog as a read-only, memory-mapped binary file.
+ * <p>
+ * Layout, all big-endian:
+ * <pre>
+ * header   magic "PHCT" | format version (int) | written at millis (long) | count (int)
+ *          | record size (int) | string pool offset (long)
+ * records  count fixed-width records sorted by id:
+ *          id (long) | name, type, manufacturer, dosage, description (int pool offsets, -1 for null)
+ *          | parsed strength unit, form, frequency (int pool offsets, -1 for null)
+ *          | parsed strength (double, NaN for null) | flags (byte, bit 0 = prescription required)
+ *          | 7 bytes padding
+ * pool     UTF-8 strings, each prefixed by its byte length (int); short repeated values are stored once
+ * </pre>
+ * Lookups binary-search the record area in place and only the drugs actually returned are decoded,
+ * so the catalog stays in the page cache rather than on the Java heap. The mapping is read with
+ * absolute gets only, which makes one instance safe for concurrent readers. A single mapping limits
+ * the file to 2 GB.
+ */
+public final class MappedCatalog {
+
+    // 2 added the parsed dosage columns
+    public static final int FORMAT_VERSION = 2;
+
+    private static final int MAGIC = 0x50484354; // "PHCT"
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 56;
+    private static final int NULL_OFFSET = -1;
+    // only values this short are de-duplicated, which covers types, manufacturers and most dosages
+    private static final int MAX_SHARED_BYTES = 64;
+    private static final int MAX_SHARED_VALUES = 100_000;
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final long writtenAtMillis;
+    private final int count;
+    private final int poolOffset;
+
+    private MappedCatalog(Path path, ByteBuffer buffer, long writtenAtMillis, int count, int poolOffset) {
+        this.path = path;
+        this.buffer = buffer;
+        this.writtenAtMillis = writtenAtMillis;
+        this.count = count;
+        this.poolOffset = poolOffset;
+    }
+
+    /**
+     * Writes the drugs, which must be in ascending id order, to a temporary file next to the target and
+     * then moves it into place, so a reader never maps a half-written file.
+     *
+     * @throws IllegalArgumentException if ids are not strictly ascending
+     * @throws IllegalStateException    if the catalog does not fit the 2 GB format
+     */
+    public static void write(Path target, List<Drug> drugs) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path records = Files.createTempFile(parent, target.getFileName().toString(), ".records");
+        Path pool = Files.createTempFile(parent, target.getFileName().toString(), ".pool");
+        Path staged = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try {
+            StringPool strings = new StringPool(pool);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(records), 1 << 16));
+                 strings) {
+                long previousId = Long.MIN_VALUE;
+                for (Drug drug : drugs) {
+                    if (drug.getId() <= previousId) {
+                        throw new IllegalArgumentException("Drug ids must be strictly ascending, got " + drug.getId() + " after " + previousId);
+                    }
+                    previousId = drug.getId();
+                    out.writeLong(drug.getId());
+                    out.writeInt(strings.add(drug.getName()));
+                    out.writeInt(strings.add(drug.getType()));
+                    out.writeInt(strings.add(drug.getManufacturer()));
+                    out.writeInt(strings.add(drug.getDosage()));
+                    out.writeInt(strings.add(drug.getDescription()));
+                    out.writeInt(strings.add(drug.getStrengthUnit()));
+                    out.writeInt(strings.add(drug.getForm()));
+                    out.writeInt(strings.add(drug.getFrequency()));
+                    out.writeDouble(drug.getStrength() == null ? Double.NaN : drug.getStrength());
+                    out.writeByte(drug.isPrescriptionRequired() ? 1 : 0);
+                    out.write(new byte[7]);
+                }
+            }
+            long recordBytes = Files.size(records);
+            long total = HEADER_SIZE + recordBytes + strings.size();
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Catalog of " + total + " bytes exceeds the 2 GB catalog file format");
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(staged), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt((int) (recordBytes / RECORD_SIZE));
+                out.writeInt(RECORD_SIZE);
+                out.writeLong(HEADER_SIZE + recordBytes);
+                Files.copy(records, out);
+                Files.copy(pool, out);
+            }
+            Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(records);
+            Files.deleteIfExists(pool);
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    /**
+     * Maps an existing catalog file.
+     *
+     * @throws IllegalArgumentException if the file is not a catalog file of this format version
+     */
+    public static MappedCatalog open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Not a catalog file: " + path);
+            }
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IllegalArgumentException("Not a catalog file: " + path);
+            }
+            int format = buffer.getInt(4);
+            if (format != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Catalog file " + path + " has format " + format + ", expected " + FORMAT_VERSION);
+            }
+            long writtenAt = buffer.getLong(8);
+            int count = buffer.getInt(16);
+            int recordSize = buffer.getInt(20);
+            long poolOffset = buffer.getLong(24);
+            if (recordSize != RECORD_SIZE || poolOffset != HEADER_SIZE + (long) count * RECORD_SIZE || poolOffset > length) {
+                throw new IllegalArgumentException("Corrupt catalog file: " + path);
+            }
+            return new MappedCatalog(path, buffer, writtenAt, count, (int) poolOffset);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getWrittenAtMillis() {
+        return writtenAtMillis;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long idAt(int index) {
+        return buffer.getLong(record(index));
+    }
+
+    /**
+     * Decodes the drug at {@code index}, parsed dosage included, so the dosage is never re-parsed.
+     */
+    public Drug drugAt(int index) {
+        int record = record(index);
+        double strength = buffer.getDouble(record + 40);
+        return new Drug(
+                buffer.getLong(record),
+                string(buffer.getInt(record + 8)),
+                string(buffer.getInt(record + 12)),
+                string(buffer.getInt(record + 16)),
+                string(buffer.getInt(record + 20)),
+                string(buffer.getInt(record + 24)),
+                (buffer.get(record + 48) & 1) != 0,
+                new DosageParser.ParsedDosage(
+                        Double.isNaN(strength) ? null : strength,
+                        string(buffer.getInt(record + 28)),
+                        string(buffer.getInt(record + 32)),
+                        string(buffer.getInt(record + 36)))
+        );
+    }
+
+    /**
+     * Binary search over the mapped records, with the same contract as {@link java.util.Arrays#binarySearch(long[], long)}.
+     */
+    public int indexOf(long id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = idAt(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    public Optional<Drug> findById(long id) {
+        int idx = indexOf(id);
+        return idx >= 0 ? Optional.of(drugAt(idx)) : Optional.empty();
+    }
+
+    /**
+     * Every drug in id order; each element is decoded from the mapping when accessed.
+     */
+    public List<Drug> all() {
+        return new AbstractList<>() {
+            @Override
+            public Drug get(int index) {
+                return drugAt(index);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    /**
+     * Lowercased UTF-8 form of a query, for {@link #textContains}.
+     */
+    public static byte[] queryBytes(String query) {
+        return query.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Whether the name, manufacturer or description of the drug at {@code index} contains the query,
+     * comparing bytes in the mapping without decoding. A query with non-ASCII characters needs
+     * full case folding, so for those the three fields are decoded and compared as Strings.
+     *
+     * @param query from {@link #queryBytes}
+     */
+    public boolean textContains(int index, byte[] query) {
+        int record = record(index);
+        if (!isAscii(query)) {
+            String text = new String(query, StandardCharsets.UTF_8);
+            return stringContains(buffer.getInt(record + 8), text)
+                    || stringContains(buffer.getInt(record + 16), text)
+                    || stringContains(buffer.getInt(record + 24), text);
+        }
+        return poolContains(buffer.getInt(record + 8), query)
+                || poolContains(buffer.getInt(record + 16), query)
+                || poolContains(buffer.getInt(record + 24), query);
+    }
+
+    private boolean poolContains(int offset, byte[] query) {
+        if (offset == NULL_OFFSET) {
+            return false;
+        }
+        int start = poolOffset + offset + 4;
+        int last = start + buffer.getInt(poolOffset + offset) - query.length;
+        for (int i = start; i <= last; i++) {
+            int j = 0;
+            while (j < query.length && lowerAscii(buffer.get(i + j)) == query[j]) {
+                j++;
+            }
+            if (j == query.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean stringContains(int offset, String lowerCaseQuery) {
+        String value = string(offset);
+        return value != null && value.toLowerCase(Locale.ROOT).contains(lowerCaseQuery);
+    }
+
+    private static boolean isAscii(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte lowerAscii(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    private int record(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + count + " drugs");
+        }
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    private String string(int offset) {
+        if (offset == NULL_OFFSET) {
+            return null;
+        }
+        int at = poolOffset + offset;
+        byte[] bytes = new byte[buffer.getInt(at)];
+        buffer.get(at + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends length-prefixed strings to a file and hands out their offsets.
+     */
+    private static final class StringPool implements AutoCloseable {
+        private final OutputStream out;
+        private final Map<String, Integer> shared = new HashMap<>();
+        private final ByteArrayOutputStream prefix = new ByteArrayOutputStream(4);
+        private long size;
+
+        StringPool(Path file) throws IOException {
+            this.out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+        }
+
+        int add(String value) throws IOException {
+            if (value == null) {
+                return NULL_OFFSET;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            boolean shareable = bytes.length <= MAX_SHARED_BYTES;
+            if (shareable) {
+                Integer existing = shared.get(value);
+                if (existing != null) {
+                    return existing;
+                }
+            }
+            if (size + 4 + bytes.length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("String pool exceeds the 2 GB catalog file format");
+            }
+            int offset = (int) size;
+            prefix.reset();
+            new DataOutputStream(prefix).writeInt(bytes.length);
+            prefix.writeTo(out);
+            out.write(bytes);
+            size += 4 + bytes.length;
+            if (shareable && shared.size() < MAX_SHARED_VALUES) {
+                shared.put(value, offset);
+            }
+            return offset;
+        }
+
+        long size() {
+            return size;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.pharmacyproject.commonTypes;
+
+/**
+ * Where public text search runs, chosen with {@code app.search.engine}.
+ */
+public enum SearchEngine {
+    /** in-JVM inverted and trigram indexes, loaded on every node at startup */
+    MEMORY,
+    /**
+     * MySQL FULLTEXT index; the inverted and trigram indexes are not loaded. The catalog snapshot,
+     * facet index and suggestions still hold every drug on every node, since listing, lookups,
+     * facets and autocomplete are served from them in either mode.
+     */
+    FULLTEXT
+}
@@ -0,0 +1,24 @@
+package org.example.pharmacyproject.commonTypes;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
+public enum SearchMode {
+    /** every query word must prefix-match a word of the name, manufacturer or description */
+    KEYWORD,
+    /** typo-tolerant match on the drug name, ranked by trigram similarity */
+    FUZZY;
+
+    public static SearchMode fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return KEYWORD;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown search mode: " + value);
+        }
+    }
+}
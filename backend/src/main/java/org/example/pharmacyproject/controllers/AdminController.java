@@ -1,10 +1,26 @@
 package org.example.pharmacyproject.controllers;
 
+import org.example.pharmacyproject.cache.CacheStats;
+import org.example.pharmacyproject.cache.CredentialsChangeCache;
+import org.example.pharmacyproject.cache.DrugCache;
+import org.example.pharmacyproject.cache.PublicSearchResultCache;
+import org.example.pharmacyproject.cache.UserPrincipalCache;
+import org.example.pharmacyproject.cache.VerifiedTokenCache;
+import org.example.pharmacyproject.catalog.CatalogSnapshot;
+import org.example.pharmacyproject.dosage.DosageBackfill;
+import org.example.pharmacyproject.dtos.drugs.DrugImportResultDTO;
+import org.example.pharmacyproject.search.SearchBenchmark;
+import org.example.pharmacyproject.services.DrugImportService;
 import org.example.pharmacyproject.services.UserService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -12,9 +28,31 @@ import java.util.Map;
 public class AdminController {
 
     private final UserService userService;
+    private final DrugCache drugCache;
+    private final DrugImportService drugImportService;
+    private final CatalogSnapshot catalogSnapshot;
+    private final DosageBackfill dosageBackfill;
+    private final PublicSearchResultCache searchResultCache;
+    private final SearchBenchmark searchBenchmark;
+    private final UserPrincipalCache userPrincipalCache;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final CredentialsChangeCache credentialsChangeCache;
 
-    public AdminController(UserService userService) {
+    public AdminController(UserService userService, DrugCache drugCache, DrugImportService drugImportService,
+                           CatalogSnapshot catalogSnapshot, DosageBackfill dosageBackfill,
+                           PublicSearchResultCache searchResultCache, SearchBenchmark searchBenchmark,
+                           UserPrincipalCache userPrincipalCache, VerifiedTokenCache verifiedTokenCache,
+                           CredentialsChangeCache credentialsChangeCache) {
         this.userService = userService;
+        this.drugCache = drugCache;
+        this.drugImportService = drugImportService;
+        this.catalogSnapshot = catalogSnapshot;
+        this.dosageBackfill = dosageBackfill;
+        this.searchResultCache = searchResultCache;
+        this.searchBenchmark = searchBenchmark;
+        this.userPrincipalCache = userPrincipalCache;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.credentialsChangeCache = credentialsChangeCache;
     }
 
     /**
@@ -32,6 +70,81 @@ public class AdminController {
         return ResponseEntity.ok(stats);
     }
 
+    /**
+     * Admin endpoint to get hit/miss/eviction statistics of the in-process caches
+     */
+    @GetMapping("/caches")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, CacheStats>> getCacheStats() {
+        return ResponseEntity.ok(Map.of("drugs", drugCache.stats(), "search", searchResultCache.stats(),
+                "users", userPrincipalCache.stats(), "tokens", verifiedTokenCache.stats(),
+                "credentials", credentialsChangeCache.stats()));
+    }
+
+    /**
+     * Admin endpoint to get the size and age of the in-memory catalog snapshot
+     */
+    @GetMapping("/catalog")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CatalogSnapshot.Stats> getCatalogStats() {
+        return ResponseEntity.ok(catalogSnapshot.stats());
+    }
+
+    /**
+     * Admin endpoint to get the estimated heap cost per drug of the catalog snapshot,
+     * next to what the same drugs would cost as loaded entities
+     */
+    @GetMapping("/catalog/footprint")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CatalogSnapshot.Footprint> getCatalogFootprint() {
+        return ResponseEntity.ok(catalogSnapshot.footprint());
+    }
+
+    /**
+     * Admin endpoint to time a ranked search on the live catalog at 1, 2, 4 ... N shards
+     */
+    @PostMapping("/search/benchmark")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<SearchBenchmark.Result>> benchmarkSearch(@RequestParam String query,
+                                                                        @RequestParam(defaultValue = "20") int limit,
+                                                                        @RequestParam(defaultValue = "20") int iterations) {
+        return ResponseEntity.ok(searchBenchmark.run(query, limit, iterations));
+    }
+
+    /**
+     * Admin endpoint to drop every cached drug, e.g. after editing rows directly in the database
+     */
+    @DeleteMapping("/caches/drugs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> clearDrugCache() {
+        drugCache.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Admin endpoint to bulk-import drugs from a CSV (with header row) or NDJSON request body.
+     * Rows are upserted by id when one is given; rows without an id are always inserted, so re-importing
+     * an id-less file duplicates its drugs. Invalid rows are reported, not fatal.
+     */
+    @PostMapping(value = "/drugs/import", consumes = { "text/csv", "application/x-ndjson" })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<DrugImportResultDTO> importDrugs(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                           InputStream body) throws IOException {
+        DrugImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? DrugImportService.Format.CSV
+                : DrugImportService.Format.NDJSON;
+        return ResponseEntity.ok(drugImportService.importDrugs(body, format));
+    }
+
+    /**
+     * Admin endpoint to parse the dosage text of drugs whose structured dosage columns are still empty
+     */
+    @PostMapping("/drugs/dosage/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> backfillDosages() {
+        return ResponseEntity.ok(Map.of("updated", dosageBackfill.backfill()));
+    }
+
     /**
      * Admin endpoint to get all users
      */
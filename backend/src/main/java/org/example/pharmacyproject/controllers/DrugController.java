@@ -1,10 +1,17 @@
 package org.example.pharmacyproject.controllers;
 
 import lombok.RequiredArgsConstructor;
+import org.example.pharmacyproject.dtos.drugs.DrugBatchDTO;
+import org.example.pharmacyproject.dtos.drugs.DrugChangesDTO;
 import org.example.pharmacyproject.dtos.drugs.DrugDTO;
+import org.example.pharmacyproject.dtos.drugs.DrugSummaryDTO;
+import org.example.pharmacyproject.dtos.drugs.DrugListRequestDTO;
+import org.example.pharmacyproject.dtos.pagination.CursorPageDTO;
 import org.example.pharmacyproject.services.DrugService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -20,13 +27,58 @@ public class DrugController {
     }
 
     /**
-     * GET /api/drugs
-     * List all drugs
+     * GET /api/drugs?cursor=&limit=&direction=&type=&manufacturer=&prescriptionRequired=&strengthMin=&strengthMax=&unit=&form=
+     * List drugs one keyset page at a time, optionally filtered
      */
     @GetMapping
-    public ResponseEntity<List<DrugDTO>> listAllDrugs() {
-        List<DrugDTO> drugs = drugService.listAll();
-        return ResponseEntity.ok(drugs);
+    public ResponseEntity<CursorPageDTO<DrugSummaryDTO>> listAllDrugs(@ModelAttribute DrugListRequestDTO request) {
+        CursorPageDTO<DrugSummaryDTO> page = drugService.listPage(request);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * GET /api/drugs/export?afterId=
+     * Stream the whole catalog as newline-delimited JSON in id order.
+     * An interrupted export resumes by passing the last id received as afterId.
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportDrugs(@RequestParam(defaultValue = "0") long afterId) {
+        StreamingResponseBody body = out -> drugService.exportNdjson(afterId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    /**
+     * GET /api/drugs/batch?ids=1,2,3
+     * Get many drugs in one round trip; ids that do not exist are listed under "missing"
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<DrugBatchDTO> getDrugsByIds(@RequestParam List<Long> ids) {
+        DrugBatchDTO batch = drugService.getByIds(ids);
+        return ResponseEntity.ok(batch);
+    }
+
+    /**
+     * POST /api/drugs/batch
+     * Same as the GET variant, with the ids as a JSON array body for lists too long for a URL
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<DrugBatchDTO> postDrugsByIds(@RequestBody List<Long> ids) {
+        DrugBatchDTO batch = drugService.getByIds(ids);
+        return ResponseEntity.ok(batch);
+    }
+
+    /**
+     * GET /api/drugs/changes?since=
+     * Drugs upserted or deleted since the catalog version from the client's last sync, plus the new
+     * version. fullResyncRequired=true means the version is too old (or from before a bulk import)
+     * and the client must reload the catalog, then sync from the returned version.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<DrugChangesDTO> getChanges(@RequestParam long since) {
+        DrugChangesDTO changes = drugService.changesSince(since);
+        return ResponseEntity.ok(changes);
     }
 
     /**
@@ -1,7 +1,17 @@
 package org.example.pharmacyproject.controllers;
 
+import org.example.pharmacyproject.cache.PublicCatalogResponseCache;
+import org.example.pharmacyproject.cache.PublicSearchResultCache;
+import org.example.pharmacyproject.cache.SerializedResponse;
+import org.example.pharmacyproject.commonTypes.SearchMode;
+import org.example.pharmacyproject.dosage.DosageFilter;
 import org.example.pharmacyproject.dtos.drugs.DrugDTO;
+import org.example.pharmacyproject.dtos.drugs.DrugSuggestionDTO;
+import org.example.pharmacyproject.dtos.drugs.FacetedSearchResultDTO;
 import org.example.pharmacyproject.services.PublicDrugService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,31 +26,92 @@ import java.util.List;
 public class PublicDrugController {
 
     private final PublicDrugService publicDrugService;
+    private final PublicCatalogResponseCache catalogResponseCache;
+    private final PublicSearchResultCache searchResultCache;
 
-    public PublicDrugController(PublicDrugService publicDrugService) {
+    public PublicDrugController(PublicDrugService publicDrugService,
+                                PublicCatalogResponseCache catalogResponseCache,
+                                PublicSearchResultCache searchResultCache) {
         this.publicDrugService = publicDrugService;
+        this.catalogResponseCache = catalogResponseCache;
+        this.searchResultCache = searchResultCache;
     }
 
     /**
      * GET /api/public/drugs
-     * List public drugs with limited information
+     * List public drugs with limited information.
+     * Served from pre-serialized bytes; answers 304 when If-None-Match carries the current ETag.
+     * The gzip body has its own ETag, so caches never mix up the two codings.
      */
     @GetMapping
-    public ResponseEntity<List<DrugDTO>> listPublicDrugs() {
-        List<DrugDTO> drugs = publicDrugService.listPublicDrugs();
-        return ResponseEntity.ok(drugs);
+    public ResponseEntity<byte[]> listPublicDrugs(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        SerializedResponse response = catalogResponseCache.get();
+        boolean gzip = SerializedResponse.acceptsGzip(acceptEncoding);
+        if (response.matches(ifNoneMatch, gzip)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(response.etag(gzip))
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(response.etag(gzip))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(response.gzip());
+        }
+        return builder.body(response.json());
     }
 
     /**
      * GET /api/public/drugs/search
-     * Search public drugs by name, manufacturer, or description
+     * Search public drugs by name, manufacturer, or description.
+     * Keyword results are ranked by BM25 relevance; explain=true adds each drug's score.
+     * mode=fuzzy matches misspelled drug names instead, best match first.
+     * strengthMin/strengthMax (in mg, mL or IU, see unit) and form narrow results by parsed dosage.
+     * page (zero-based, up to 49) selects the next 20 results; a full page means there may be more.
+     * Results are cached per normalized query until the catalog changes.
      */
     @GetMapping("/search")
-    public ResponseEntity<List<DrugDTO>> searchPublicDrugs(@RequestParam(required = false) String query) {
-        List<DrugDTO> drugs = publicDrugService.searchPublicDrugs(query);
+    public ResponseEntity<List<DrugDTO>> searchPublicDrugs(@RequestParam(required = false) String query,
+                                                           @RequestParam(required = false) String mode,
+                                                           @RequestParam(defaultValue = "false") boolean explain,
+                                                           @RequestParam(required = false) Double strengthMin,
+                                                           @RequestParam(required = false) Double strengthMax,
+                                                           @RequestParam(required = false) String unit,
+                                                           @RequestParam(required = false) String form,
+                                                           @RequestParam(defaultValue = "0") int page) {
+        List<DrugDTO> drugs = searchResultCache.search(query, SearchMode.fromParam(mode), explain,
+                DosageFilter.of(strengthMin, strengthMax, unit, form), page);
         return ResponseEntity.ok(drugs);
     }
 
+    /**
+     * GET /api/public/drugs/search/faceted?query=&type=&manufacturer=&prescriptionRequired=
+     * Search narrowed by facet filters, with counts per type, manufacturer and Rx flag
+     */
+    @GetMapping("/search/faceted")
+    public ResponseEntity<FacetedSearchResultDTO> facetedSearch(@RequestParam(required = false) String query,
+                                                                @RequestParam(required = false) String type,
+                                                                @RequestParam(required = false) String manufacturer,
+                                                                @RequestParam(required = false) Boolean prescriptionRequired) {
+        FacetedSearchResultDTO result = publicDrugService.facetedSearch(query, type, manufacturer, prescriptionRequired);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * GET /api/public/drugs/suggest?prefix=
+     * Autocomplete drug names and manufacturers, most popular first
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<DrugSuggestionDTO>> suggest(@RequestParam String prefix,
+                                                           @RequestParam(defaultValue = "10") int limit) {
+        List<DrugSuggestionDTO> suggestions = publicDrugService.suggest(prefix, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+
     /**
      * GET /api/public/drugs/{id}
      * Get a single public drug by its ID
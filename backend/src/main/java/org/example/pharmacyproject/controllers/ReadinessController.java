@@ -0,0 +1,31 @@
+package org.example.pharmacyproject.controllers;
+
+import org.example.pharmacyproject.startup.StartupWarmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/ready")
+public class ReadinessController {
+
+    private final StartupWarmup startupWarmup;
+
+    public ReadinessController(StartupWarmup startupWarmup) {
+        this.startupWarmup = startupWarmup;
+    }
+
+    /**
+     * GET /api/ready
+     * Readiness probe: 200 once the startup warm-up has finished, 503 while the node is still cold
+     * (or its warm-up failed), so traffic is only routed to warm nodes. The body carries the startup timings.
+     */
+    @GetMapping
+    public ResponseEntity<StartupWarmup.Status> ready() {
+        StartupWarmup.Status status = startupWarmup.status();
+        HttpStatus code = status.state() == StartupWarmup.State.READY ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(code).body(status);
+    }
+}
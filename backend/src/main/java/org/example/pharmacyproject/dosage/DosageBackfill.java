@@ -0,0 +1,99 @@
+package org.example.pharmacyproject.dosage;
+
+import org.example.pharmacyproject.events.DrugCatalogInvalidatedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills the parsed dosage columns of rows written before they existed.
+ * <p>
+ * Walks the table in id order, one keyset batch at a time, parses each dosage and writes the batch
+ * back with a single JDBC batch update. Each row is visited once per run, so rows whose dosage
+ * cannot be parsed do not make the run loop.
+ */
+@Component
+public class DosageBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(DosageBackfill.class);
+
+    private static final String SELECT_SQL =
+            "SELECT id, dosage FROM drugs " +
+            "WHERE id > ? AND strength_unit IS NULL AND dosage_form IS NULL AND dosage_frequency IS NULL " +
+            "ORDER BY id LIMIT ?";
+    private static final String UPDATE_SQL =
+            "UPDATE drugs SET strength_value = ?, strength_unit = ?, dosage_form = ?, dosage_frequency = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean runOnStartup;
+    private final int batchSize;
+
+    public DosageBackfill(JdbcTemplate jdbcTemplate,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${app.dosage.backfill-on-startup:true}") boolean runOnStartup,
+                          @Value("${app.dosage.backfill-batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.runOnStartup = runOnStartup;
+        this.batchSize = batchSize;
+    }
+
+    private record Row(long id, DosageParser.ParsedDosage parsed) {}
+
+    /** Run by StartupWarmup once the application is up. */
+    public void backfillOnStartup() {
+        if (runOnStartup) {
+            backfill();
+        }
+    }
+
+    /**
+     * @return number of drugs whose dosage columns were filled in
+     */
+    public synchronized int backfill() {
+        long started = System.nanoTime();
+        long afterId = 0;
+        int updated = 0;
+        while (true) {
+            List<Row> batch = new ArrayList<>(batchSize);
+            jdbcTemplate.query(SELECT_SQL, rs -> {
+                batch.add(new Row(rs.getLong(1), DosageParser.parse(rs.getString(2))));
+            }, afterId, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            afterId = batch.get(batch.size() - 1).id();
+            List<Row> parsed = batch.stream()
+                    .filter(row -> row.parsed() != DosageParser.ParsedDosage.EMPTY)
+                    .toList();
+            jdbcTemplate.batchUpdate(UPDATE_SQL, parsed, parsed.size(), (ps, row) -> {
+                if (row.parsed().strength() == null) {
+                    ps.setNull(1, Types.DOUBLE);
+                } else {
+                    ps.setDouble(1, row.parsed().strength());
+                }
+                ps.setString(2, row.parsed().unit());
+                ps.setString(3, row.parsed().form());
+                ps.setString(4, row.parsed().frequency());
+                ps.setLong(5, row.id());
+            });
+            updated += parsed.size();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        if (updated > 0) {
+            log.info("Dosage backfill parsed {} drugs in {} ms", updated, (System.nanoTime() - started) / 1_000_000);
+            eventPublisher.publishEvent(new DrugCatalogInvalidatedEvent("dosage backfill of " + updated + " drugs"));
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.pharmacyproject.dosage;
+
+import org.example.pharmacyproject.entities.Drug;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
+/**
+ * Optional dosage constraints from a list or search request. Strength bounds are in the base unit
+ * (mg, mL or IU) and are usually combined with {@code unit}. Null fields do not constrain.
+ */
+public record DosageFilter(Double strengthMin, Double strengthMax, String unit, String form) {
+
+    public static final DosageFilter NONE = new DosageFilter(null, null, null, null);
+
+    /**
+     * Builds a filter from raw request parameters, treating blanks as unset.
+     *
+     * @throws ResponseStatusException 400 for an unknown unit or an empty strength range
+     */
+    public static DosageFilter of(Double strengthMin, Double strengthMax, String unit, String form) {
+        if (strengthMin != null && strengthMax != null && strengthMin > strengthMax) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "strengthMin must not be greater than strengthMax");
+        }
+        String baseUnit = null;
+        if (unit != null && !unit.isBlank()) {
+            for (String candidate : new String[] { DosageParser.MILLIGRAM, DosageParser.MILLILITRE, DosageParser.INTERNATIONAL_UNIT }) {
+                if (candidate.equalsIgnoreCase(unit.trim())) {
+                    baseUnit = candidate;
+                }
+            }
+            if (baseUnit == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown strength unit: " + unit + " (use mg, mL or IU)");
+            }
+        }
+        String normalizedForm = form == null || form.isBlank() ? null : form.trim().toLowerCase(Locale.ROOT);
+        return new DosageFilter(strengthMin, strengthMax, baseUnit, normalizedForm);
+    }
+
+    public boolean isEmpty() {
+        return strengthMin == null && strengthMax == null && unit == null && form == null;
+    }
+
+    public boolean matches(Drug drug) {
+        return matches(drug.getStrength(), drug.getStrengthUnit(), drug.getForm());
+    }
+
+    /**
+     * Same as {@link #matches(Drug)}, for a dosage already parsed, e.g. one kept by a search index.
+     */
+    public boolean matches(DosageParser.ParsedDosage dosage) {
+        return matches(dosage.strength(), dosage.unit(), dosage.form());
+    }
+
+    private boolean matches(Double strength, String strengthUnit, String dosageForm) {
+        if (unit != null && !unit.equalsIgnoreCase(strengthUnit)) {
+            return false;
+        }
+        if (form != null && !form.equalsIgnoreCase(dosageForm)) {
+            return false;
+        }
+        if (strengthMin != null || strengthMax != null) {
+            if (strength == null
+                    || (strengthMin != null && strength < strengthMin)
+                    || (strengthMax != null && strength > strengthMax)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
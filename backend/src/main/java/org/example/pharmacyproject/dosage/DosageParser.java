@@ -0,0 +1,130 @@
+package org.example.pharmacyproject.dosage;
+
+import java.util.Locale;
+
+/**
+ * Parses free-form dosage text such as {@code "500 mg, tablet, twice daily"} into
+ * strength, unit, form and frequency.
+ * <p>
+ * Strengths are normalised to a base unit per dimension: mg for mass (g, mcg), mL for volume (L)
+ * and IU, so that range filters compare like with like. The parser walks the string once by index;
+ * known forms and frequencies resolve to shared constants, so a typical dosage allocates only the result.
+ */
+public final class DosageParser {
+
+    public static final String MILLIGRAM = "mg";
+    public static final String MILLILITRE = "mL";
+    public static final String INTERNATIONAL_UNIT = "IU";
+
+    /** What a dosage string says. Any part that could not be read is null. */
+    public record ParsedDosage(Double strength, String unit, String form, String frequency) {
+        public static final ParsedDosage EMPTY = new ParsedDosage(null, null, null, null);
+    }
+
+    // unit spelling, factor to the base unit, base unit
+    private static final String[] UNIT_NAMES = { "mg", "g", "mcg", "µg", "ug", "ml", "l", "iu" };
+    private static final double[] UNIT_FACTORS = { 1, 1000, 0.001, 0.001, 0.001, 1, 1000, 1 };
+    private static final String[] UNIT_BASES = {
+            MILLIGRAM, MILLIGRAM, MILLIGRAM, MILLIGRAM, MILLIGRAM, MILLILITRE, MILLILITRE, INTERNATIONAL_UNIT
+    };
+
+    private static final String[] FORMS = {
+            "tablet", "capsule", "injection", "solution", "suspension",
+            "cream", "ointment", "patch", "powder", "suppository"
+    };
+
+    private static final String[] FREQUENCIES = {
+            "once daily", "twice daily", "three times daily", "four times daily",
+            "every 4 hours", "every 6 hours", "every 8 hours", "every 12 hours", "as needed"
+    };
+
+    private DosageParser() {}
+
+    public static ParsedDosage parse(String dosage) {
+        if (dosage == null || dosage.isBlank()) {
+            return ParsedDosage.EMPTY;
+        }
+        int length = dosage.length();
+        int i = skipSpaces(dosage, 0, length);
+
+        // strength: digits with an optional decimal point
+        Double strength = null;
+        String unit = null;
+        long mantissa = 0;
+        int decimals = -1;   // digits after the decimal point, -1 before one is seen
+        int digits = 0;
+        for (; i < length; i++) {
+            char c = dosage.charAt(i);
+            if (c >= '0' && c <= '9' && digits < 15) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else {
+                break;
+            }
+        }
+        if (digits > 0) {
+            double value = decimals > 0 ? mantissa / Math.pow(10, decimals) : mantissa;
+            i = skipSpaces(dosage, i, length);
+            int unitEnd = i;
+            while (unitEnd < length && (Character.isLetter(dosage.charAt(unitEnd)))) {
+                unitEnd++;
+            }
+            int unitIndex = lookup(dosage, i, unitEnd, UNIT_NAMES);
+            if (unitIndex >= 0) {
+                strength = value * UNIT_FACTORS[unitIndex];
+                unit = UNIT_BASES[unitIndex];
+                i = unitEnd;
+            }
+        }
+
+        // the remaining comma-separated parts are form, then frequency
+        int formStart = dosage.indexOf(',', i);
+        if (formStart < 0) {
+            return new ParsedDosage(strength, unit, null, null);
+        }
+        int formEnd = dosage.indexOf(',', formStart + 1);
+        if (formEnd < 0) {
+            formEnd = length;
+        }
+        String form = segment(dosage, formStart + 1, formEnd, FORMS);
+        String frequency = formEnd < length ? segment(dosage, formEnd + 1, length, FREQUENCIES) : null;
+        return new ParsedDosage(strength, unit, form, frequency);
+    }
+
+    /**
+     * The trimmed text between from and to: a shared constant when it is a known value, otherwise a lowercase copy.
+     */
+    private static String segment(String text, int from, int to, String[] known) {
+        from = skipSpaces(text, from, to);
+        while (to > from && Character.isWhitespace(text.charAt(to - 1))) {
+            to--;
+        }
+        if (from == to) {
+            return null;
+        }
+        int index = lookup(text, from, to, known);
+        return index >= 0 ? known[index] : text.substring(from, to).toLowerCase(Locale.ROOT);
+    }
+
+    private static int lookup(String text, int from, int to, String[] candidates) {
+        int length = to - from;
+        for (int k = 0; k < candidates.length; k++) {
+            if (candidates[k].length() == length && text.regionMatches(true, from, candidates[k], 0, length)) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipSpaces(String text, int from, int to) {
+        while (from < to && Character.isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.pharmacyproject.dtos.drugs;
+
+import java.util.List;
+
+/**
+ * Result of a batch lookup: the drugs found, in request order, and the requested ids that do not exist.
+ */
+public class DrugBatchDTO {
+    private List<DrugDTO> drugs;
+    private List<Long> missing;
+
+    public DrugBatchDTO() {}
+
+    public DrugBatchDTO(List<DrugDTO> drugs, List<Long> missing) {
+        this.drugs = drugs;
+        this.missing = missing;
+    }
+
+    public List<DrugDTO> getDrugs() {
+        return drugs;
+    }
+
+    public void setDrugs(List<DrugDTO> drugs) {
+        this.drugs = drugs;
+    }
+
+    public List<Long> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<Long> missing) {
+        this.missing = missing;
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.pharmacyproject.dtos.drugs;
+
+import java.util.List;
+
+/**
+ * Catalog changes after a client's version. Clients store {@code version} and pass it as {@code since}
+ * next time; when {@code fullResyncRequired} is set they discard their copy and reload the catalog.
+ */
+public class DrugChangesDTO {
+    private long version;
+    private boolean fullResyncRequired;
+    private List<DrugDTO> upserts;
+    private List<Long> deletions;
+
+    public DrugChangesDTO() {}
+
+    public DrugChangesDTO(long version, boolean fullResyncRequired, List<DrugDTO> upserts, List<Long> deletions) {
+        this.version = version;
+        this.fullResyncRequired = fullResyncRequired;
+        this.upserts = upserts;
+        this.deletions = deletions;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isFullResyncRequired() {
+        return fullResyncRequired;
+    }
+
+    public void setFullResyncRequired(boolean fullResyncRequired) {
+        this.fullResyncRequired = fullResyncRequired;
+    }
+
+    public List<DrugDTO> getUpserts() {
+        return upserts;
+    }
+
+    public void setUpserts(List<DrugDTO> upserts) {
+        this.upserts = upserts;
+    }
+
+    public List<Long> getDeletions() {
+        return deletions;
+    }
+
+    public void setDeletions(List<Long> deletions) {
+        this.deletions = deletions;
+    }
+}
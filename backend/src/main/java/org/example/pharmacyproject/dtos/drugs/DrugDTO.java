@@ -1,5 +1,7 @@
 package org.example.pharmacyproject.dtos.drugs;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class DrugDTO {
     private Long id;
     private String name;
@@ -8,6 +10,9 @@ public class DrugDTO {
     private String dosage;
     private String description;
     private boolean prescriptionRequired;
+    // search relevance, only filled in when a search asks to explain its ranking
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double score;
 
     public DrugDTO() {}
 
@@ -82,4 +87,12 @@ public class DrugDTO {
     public void setPrescriptionRequired(boolean prescriptionRequired) {
         this.prescriptionRequired = prescriptionRequired;
     }
-}
\ No newline at end of file
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+}
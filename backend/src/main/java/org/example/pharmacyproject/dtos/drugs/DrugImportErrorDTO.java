@@ -0,0 +1,29 @@
+package org.example.pharmacyproject.dtos.drugs;
+
+public class DrugImportErrorDTO {
+    private int line;
+    private String message;
+
+    public DrugImportErrorDTO() {}
+
+    public DrugImportErrorDTO(int line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public void setLine(int line) {
+        this.line = line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.pharmacyproject.dtos.drugs;
+
+import java.util.List;
+
+/**
+ * Summary of a bulk drug import. Only the first errors are listed; {@code failed} counts all of them.
+ */
+public class DrugImportResultDTO {
+    private long processed;
+    private long imported;
+    private long failed;
+    private long durationMs;
+    private List<DrugImportErrorDTO> errors;
+
+    public DrugImportResultDTO() {}
+
+    public DrugImportResultDTO(long processed, long imported, long failed, long durationMs, List<DrugImportErrorDTO> errors) {
+        this.processed = processed;
+        this.imported = imported;
+        this.failed = failed;
+        this.durationMs = durationMs;
+        this.errors = errors;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public List<DrugImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<DrugImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+}
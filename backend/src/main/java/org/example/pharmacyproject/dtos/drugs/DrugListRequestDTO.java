@@ -0,0 +1,111 @@
+package org.example.pharmacyproject.dtos.drugs;
+
+import org.example.pharmacyproject.dosage.DosageFilter;
+
+/**
+ * Query parameters accepted by GET /api/drugs.
+ * All filters are optional; unset filters match every drug.
+ * strengthMin/strengthMax are in the base unit of {@code unit}: mg, mL or IU.
+ */
+public class DrugListRequestDTO {
+    private String cursor;
+    private int limit = 50;
+    private String direction = "asc";
+    private String type;
+    private String manufacturer;
+    private Boolean prescriptionRequired;
+    private Double strengthMin;
+    private Double strengthMax;
+    private String unit;
+    private String form;
+
+    public DrugListRequestDTO() {}
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    public boolean isDescending() {
+        return "desc".equalsIgnoreCase(direction);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getManufacturer() {
+        return manufacturer;
+    }
+
+    public void setManufacturer(String manufacturer) {
+        this.manufacturer = manufacturer;
+    }
+
+    public Boolean getPrescriptionRequired() {
+        return prescriptionRequired;
+    }
+
+    public void setPrescriptionRequired(Boolean prescriptionRequired) {
+        this.prescriptionRequired = prescriptionRequired;
+    }
+
+    public Double getStrengthMin() {
+        return strengthMin;
+    }
+
+    public void setStrengthMin(Double strengthMin) {
+        this.strengthMin = strengthMin;
+    }
+
+    public Double getStrengthMax() {
+        return strengthMax;
+    }
+
+    public void setStrengthMax(Double strengthMax) {
+        this.strengthMax = strengthMax;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public String getForm() {
+        return form;
+    }
+
+    public void setForm(String form) {
+        this.form = form;
+    }
+
+    public DosageFilter toDosageFilter() {
+        return DosageFilter.of(strengthMin, strengthMax, unit, form);
+    }
+}
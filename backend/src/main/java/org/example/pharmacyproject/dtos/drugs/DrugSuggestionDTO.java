@@ -0,0 +1,29 @@
+package org.example.pharmacyproject.dtos.drugs;
+
+public class DrugSuggestionDTO {
+    private String text;
+    private String kind;    // "DRUG" or "MANUFACTURER"
+
+    public DrugSuggestionDTO() {}
+
+    public DrugSuggestionDTO(String text, String kind) {
+        this.text = text;
+        this.kind = kind;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.pharmacyproject.dtos.drugs;
+
+/**
+ * What a drug list card shows. Dosage and description are only served by the single-drug endpoints.
+ */
+public class DrugSummaryDTO {
+    private Long id;
+    private String name;
+    private String type;
+    private String manufacturer;
+    private boolean prescriptionRequired;
+
+    public DrugSummaryDTO() {}
+
+    public DrugSummaryDTO(Long id,
+                          String name,
+                          String type,
+                          String manufacturer,
+                          boolean prescriptionRequired) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.manufacturer = manufacturer;
+        this.prescriptionRequired = prescriptionRequired;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getManufacturer() {
+        return manufacturer;
+    }
+
+    public void setManufacturer(String manufacturer) {
+        this.manufacturer = manufacturer;
+    }
+
+    public boolean isPrescriptionRequired() {
+        return prescriptionRequired;
+    }
+
+    public void setPrescriptionRequired(boolean prescriptionRequired) {
+        this.prescriptionRequired = prescriptionRequired;
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.pharmacyproject.dtos.drugs;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drugs matching a faceted search plus how many matches fall under each facet value.
+ */
+public class FacetedSearchResultDTO {
+    private List<DrugDTO> drugs;
+    private int total;
+    private Map<String, Integer> types;
+    private Map<String, Integer> manufacturers;
+    private int prescriptionRequired;
+    private int prescriptionNotRequired;
+
+    public FacetedSearchResultDTO() {}
+
+    public FacetedSearchResultDTO(List<DrugDTO> drugs,
+                                  int total,
+                                  Map<String, Integer> types,
+                                  Map<String, Integer> manufacturers,
+                                  int prescriptionRequired,
+                                  int prescriptionNotRequired) {
+        this.drugs = drugs;
+        this.total = total;
+        this.types = types;
+        this.manufacturers = manufacturers;
+        this.prescriptionRequired = prescriptionRequired;
+        this.prescriptionNotRequired = prescriptionNotRequired;
+    }
+
+    public List<DrugDTO> getDrugs() {
+        return drugs;
+    }
+
+    public void setDrugs(List<DrugDTO> drugs) {
+        this.drugs = drugs;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public Map<String, Integer> getTypes() {
+        return types;
+    }
+
+    public void setTypes(Map<String, Integer> types) {
+        this.types = types;
+    }
+
+    public Map<String, Integer> getManufacturers() {
+        return manufacturers;
+    }
+
+    public void setManufacturers(Map<String, Integer> manufacturers) {
+        this.manufacturers = manufacturers;
+    }
+
+    public int getPrescriptionRequired() {
+        return prescriptionRequired;
+    }
+
+    public void setPrescriptionRequired(int prescriptionRequired) {
+        this.prescriptionRequired = prescriptionRequired;
+    }
+
+    public int getPrescriptionNotRequired() {
+        return prescriptionNotRequired;
+    }
+
+    public void setPrescriptionNotRequired(int prescriptionNotRequired) {
+        this.prescriptionNotRequired = prescriptionNotRequired;
+    }
+}
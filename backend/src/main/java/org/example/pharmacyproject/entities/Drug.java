@@ -1,9 +1,20 @@
 package org.example.pharmacyproject.entities;
 
 import jakarta.persistence.*;
+import org.example.pharmacyproject.dosage.DosageParser;
+import org.example.pharmacyproject.events.DrugEntityListener;
 
 @Entity
-@Table(name = "drugs")
+@Table(name = "drugs", indexes = {
+        // composite (filter, id) indexes let keyset pages seek straight to the cursor
+        @Index(name = "idx_drugs_type_id", columnList = "type, id"),
+        @Index(name = "idx_drugs_manufacturer_id", columnList = "manufacturer, id"),
+        @Index(name = "idx_drugs_rx_id", columnList = "prescription_required, id"),
+        // dosage range filters: equality column first, then the strength range
+        @Index(name = "idx_drugs_form_strength", columnList = "dosage_form, strength_value"),
+        @Index(name = "idx_drugs_unit_strength", columnList = "strength_unit, strength_value")
+})
+@EntityListeners(DrugEntityListener.class)
 public class Drug {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -26,10 +37,31 @@ public class Drug {
     @Column(name = "prescription_required", nullable = false)
     private boolean prescriptionRequired;
 
+    // Parsed from dosage; strength is normalised to strengthUnit (mg, mL or IU)
+    @Column(name = "strength_value")
+    private Double strength;
+
+    @Column(name = "strength_unit", length = 8)
+    private String strengthUnit;
+
+    @Column(name = "dosage_form", length = 64)
+    private String form;
+
+    @Column(name = "dosage_frequency", length = 64)
+    private String frequency;
+
 
     protected Drug() { }
 
     public Drug(Long id, String name, String type, String manufacturer, String dosage, String description, boolean prescriptionRequired) {
+        this(id, name, type, manufacturer, dosage, description, prescriptionRequired, DosageParser.parse(dosage));
+    }
+
+    /**
+     * For copies of a drug whose dosage has already been parsed.
+     */
+    public Drug(Long id, String name, String type, String manufacturer, String dosage, String description,
+                boolean prescriptionRequired, DosageParser.ParsedDosage parsed) {
         this.id = id;
         this.name = name;
         this.type = type;
@@ -37,6 +69,10 @@ public class Drug {
         this.dosage = dosage;
         this.description = description;
         this.prescriptionRequired = prescriptionRequired;
+        this.strength = parsed.strength();
+        this.strengthUnit = parsed.unit();
+        this.form = parsed.form();
+        this.frequency = parsed.frequency();
     }
 
     public Long getId() { return id; }
@@ -46,5 +82,17 @@ public class Drug {
     public String getDosage() { return dosage; }
     public String getDescription() { return description; }
     public boolean isPrescriptionRequired() { return prescriptionRequired; }
+    public Double getStrength() { return strength; }
+    public String getStrengthUnit() { return strengthUnit; }
+    public String getForm() { return form; }
+    public String getFrequency() { return frequency; }
+
+    /** The parsed dosage columns as one value, {@link DosageParser.ParsedDosage#EMPTY} when none is set. */
+    public DosageParser.ParsedDosage parsedDosage() {
+        if (strength == null && strengthUnit == null && form == null && frequency == null) {
+            return DosageParser.ParsedDosage.EMPTY;
+        }
+        return new DosageParser.ParsedDosage(strength, strengthUnit, form, frequency);
+    }
 }
 
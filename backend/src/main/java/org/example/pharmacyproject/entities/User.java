@@ -41,6 +41,10 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;          // ↳ UserProfileResponseDTO.updatedAt
 
+    // access tokens issued before this are refused; set on password change and reset
+    @Column(name = "credentials_changed_at")
+    private LocalDateTime credentialsChangedAt;
+
     @OneToMany(mappedBy="user", cascade=ALL, orphanRemoval=true)
     private List<RefreshToken> refreshTokens;
 
@@ -136,6 +140,14 @@ public class User {
         this.updatedAt = updatedAt;
     }
 
+    public LocalDateTime getCredentialsChangedAt() {
+        return credentialsChangedAt;
+    }
+
+    public void setCredentialsChangedAt(LocalDateTime credentialsChangedAt) {
+        this.credentialsChangedAt = credentialsChangedAt;
+    }
+
     public List<RefreshToken> getRefreshTokens() {
         return refreshTokens;
     }
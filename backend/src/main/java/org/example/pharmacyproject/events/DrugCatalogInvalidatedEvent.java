@@ -0,0 +1,18 @@
+package org.example.pharmacyproject.events;
+
+/**
+ * Published after drugs were written without going through JPA (e.g. a bulk import),
+ * so no per-row {@link DrugChangedEvent}s were raised. Listeners must reload from the database.
+ */
+public class DrugCatalogInvalidatedEvent {
+
+    private final String reason;
+
+    public DrugCatalogInvalidatedEvent(String reason) {
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
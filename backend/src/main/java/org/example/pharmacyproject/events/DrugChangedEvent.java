@@ -0,0 +1,39 @@
+package org.example.pharmacyproject.events;
+
+import org.example.pharmacyproject.entities.Drug;
+
+/**
+ * Published whenever a Drug row is inserted, updated or deleted.
+ * In-memory read structures (search index, caches) listen for it to stay in sync with the database.
+ */
+public class DrugChangedEvent {
+
+    public enum ChangeType {
+        UPSERT,
+        DELETE
+    }
+
+    private final Drug drug;
+    private final ChangeType changeType;
+
+    public DrugChangedEvent(Drug drug, ChangeType changeType) {
+        this.drug = drug;
+        this.changeType = changeType;
+    }
+
+    public Drug getDrug() {
+        return drug;
+    }
+
+    public Long getDrugId() {
+        return drug.getId();
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public boolean isDelete() {
+        return changeType == ChangeType.DELETE;
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.pharmacyproject.events;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.example.pharmacyproject.entities.Drug;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA lifecycle listener that turns Drug writes into {@link DrugChangedEvent}s.
+ * Hibernate resolves it through Spring's bean container, so constructor injection works here.
+ */
+@Component
+public class DrugEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public DrugEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Drug drug) {
+        eventPublisher.publishEvent(new DrugChangedEvent(drug, DrugChangedEvent.ChangeType.UPSERT));
+    }
+
+    @PostRemove
+    public void onRemoved(Drug drug) {
+        eventPublisher.publishEvent(new DrugChangedEvent(drug, DrugChangedEvent.ChangeType.DELETE));
+    }
+}
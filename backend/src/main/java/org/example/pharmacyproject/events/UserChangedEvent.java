@@ -0,0 +1,23 @@
+package org.example.pharmacyproject.events;
+
+/**
+ * Published when a user's credentials change or the user is deleted, so cached principals are dropped.
+ */
+public class UserChangedEvent {
+
+    private final Long userId;
+    private final String email;
+
+    public UserChangedEvent(Long userId, String email) {
+        this.userId = userId;
+        this.email = email;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
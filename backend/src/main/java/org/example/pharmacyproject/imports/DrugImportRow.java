@@ -0,0 +1,73 @@
+package org.example.pharmacyproject.imports;
+
+/**
+ * One raw, unvalidated drug record from an import file. Every value is kept as text
+ * so CSV and NDJSON input go through the same validation.
+ */
+public class DrugImportRow {
+    private String id;
+    private String name;
+    private String type;
+    private String manufacturer;
+    private String dosage;
+    private String description;
+    private String prescriptionRequired;
+
+    public DrugImportRow() {}
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getManufacturer() {
+        return manufacturer;
+    }
+
+    public void setManufacturer(String manufacturer) {
+        this.manufacturer = manufacturer;
+    }
+
+    public String getDosage() {
+        return dosage;
+    }
+
+    public void setDosage(String dosage) {
+        this.dosage = dosage;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getPrescriptionRequired() {
+        return prescriptionRequired;
+    }
+
+    public void setPrescriptionRequired(String prescriptionRequired) {
+        this.prescriptionRequired = prescriptionRequired;
+    }
+}
@@ -2,10 +2,121 @@ package org.example.pharmacyproject.repositories;
 
 
 import org.example.pharmacyproject.entities.Drug;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
 public interface DrugRepository extends JpaRepository<Drug, Long> {
-}
 
+    // first N drugs in id order, without loading the rest of the table
+    List<Drug> findByOrderByIdAsc(Limit limit);
+
+    // same, as list-card projections that never read description or dosage
+    @Query("SELECT new org.example.pharmacyproject.repositories.DrugSummary(d.id, d.name, d.type, d.manufacturer, d.prescriptionRequired) " +
+            "FROM Drug d ORDER BY d.id ASC")
+    List<DrugSummary> findSummaries(Limit limit);
+
+    // keyset page in ascending id order: everything strictly after the cursor id
+    @Query("SELECT new org.example.pharmacyproject.repositories.DrugSummary(d.id, d.name, d.type, d.manufacturer, d.prescriptionRequired) " +
+            "FROM Drug d " +
+            "WHERE d.id > :afterId " +
+            "AND (:type IS NULL OR d.type = :type) " +
+            "AND (:manufacturer IS NULL OR d.manufacturer = :manufacturer) " +
+            "AND (:prescriptionRequired IS NULL OR d.prescriptionRequired = :prescriptionRequired) " +
+            "AND (:unit IS NULL OR d.strengthUnit = :unit) " +
+            "AND (:form IS NULL OR d.form = :form) " +
+            "AND (:strengthMin IS NULL OR d.strength >= :strengthMin) " +
+            "AND (:strengthMax IS NULL OR d.strength <= :strengthMax) " +
+            "ORDER BY d.id ASC")
+    List<DrugSummary> findPageAfter(@Param("afterId") long afterId,
+                                    @Param("type") String type,
+                                    @Param("manufacturer") String manufacturer,
+                                    @Param("prescriptionRequired") Boolean prescriptionRequired,
+                                    @Param("unit") String unit,
+                                    @Param("form") String form,
+                                    @Param("strengthMin") Double strengthMin,
+                                    @Param("strengthMax") Double strengthMax,
+                                    Limit limit);
+
+    // keyset page in descending id order: everything strictly before the cursor id
+    @Query("SELECT new org.example.pharmacyproject.repositories.DrugSummary(d.id, d.name, d.type, d.manufacturer, d.prescriptionRequired) " +
+            "FROM Drug d " +
+            "WHERE d.id < :beforeId " +
+            "AND (:type IS NULL OR d.type = :type) " +
+            "AND (:manufacturer IS NULL OR d.manufacturer = :manufacturer) " +
+            "AND (:prescriptionRequired IS NULL OR d.prescriptionRequired = :prescriptionRequired) " +
+            "AND (:unit IS NULL OR d.strengthUnit = :unit) " +
+            "AND (:form IS NULL OR d.form = :form) " +
+            "AND (:strengthMin IS NULL OR d.strength >= :strengthMin) " +
+            "AND (:strengthMax IS NULL OR d.strength <= :strengthMax) " +
+            "ORDER BY d.id DESC")
+    List<DrugSummary> findPageBefore(@Param("beforeId") long beforeId,
+                                     @Param("type") String type,
+                                     @Param("manufacturer") String manufacturer,
+                                     @Param("prescriptionRequired") Boolean prescriptionRequired,
+                                     @Param("unit") String unit,
+                                     @Param("form") String form,
+                                     @Param("strengthMin") Double strengthMin,
+                                     @Param("strengthMax") Double strengthMax,
+                                     Limit limit);
+
+    // MySQL FULLTEXT search (index created by DrugFullTextSchema), most relevant first, within the
+    // dosage filter so a selective filter still fills the page; null filter values do not constrain
+    @Query(value = "SELECT * FROM drugs " +
+            "WHERE MATCH(name, manufacturer, description) AGAINST (:query IN NATURAL LANGUAGE MODE) " +
+            "AND (:unit IS NULL OR strength_unit = :unit) " +
+            "AND (:form IS NULL OR dosage_form = :form) " +
+            "AND (:strengthMin IS NULL OR strength_value >= :strengthMin) " +
+            "AND (:strengthMax IS NULL OR strength_value <= :strengthMax) " +
+            "ORDER BY MATCH(name, manufacturer, description) AGAINST (:query IN NATURAL LANGUAGE MODE) DESC, id ASC",
+            nativeQuery = true)
+    Slice<Drug> searchFullTextNatural(@Param("query") String query,
+                                      @Param("unit") String unit,
+                                      @Param("form") String form,
+                                      @Param("strengthMin") Double strengthMin,
+                                      @Param("strengthMax") Double strengthMax,
+                                      Pageable pageable);
+
+    // same in boolean mode; the query uses MySQL operators, e.g. "+ibu* +tab*"
+    @Query(value = "SELECT * FROM drugs " +
+            "WHERE MATCH(name, manufacturer, description) AGAINST (:query IN BOOLEAN MODE) " +
+            "AND (:unit IS NULL OR strength_unit = :unit) " +
+            "AND (:form IS NULL OR dosage_form = :form) " +
+            "AND (:strengthMin IS NULL OR strength_value >= :strengthMin) " +
+            "AND (:strengthMax IS NULL OR strength_value <= :strengthMax) " +
+            "ORDER BY MATCH(name, manufacturer, description) AGAINST (:query IN BOOLEAN MODE) DESC, id ASC",
+            nativeQuery = true)
+    Slice<Drug> searchFullTextBoolean(@Param("query") String query,
+                                      @Param("unit") String unit,
+                                      @Param("form") String form,
+                                      @Param("strengthMin") Double strengthMin,
+                                      @Param("strengthMax") Double strengthMax,
+                                      Pageable pageable);
+
+    // ids of every boolean-mode match, ascending, to combine full-text search with facet filters
+    @Query(value = "SELECT id FROM drugs " +
+            "WHERE MATCH(name, manufacturer, description) AGAINST (:query IN BOOLEAN MODE) ORDER BY id",
+            nativeQuery = true)
+    List<Long> findFullTextBooleanIds(@Param("query") String query);
+
+    // forward-only cursor over every drug after the given id; Integer.MIN_VALUE makes MySQL stream rows
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT d FROM Drug d WHERE d.id > :afterId ORDER BY d.id ASC")
+    Stream<Drug> streamAllAfter(@Param("afterId") long afterId);
+}
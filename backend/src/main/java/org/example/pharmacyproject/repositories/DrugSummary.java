@@ -0,0 +1,11 @@
+package org.example.pharmacyproject.repositories;
+
+/**
+ * Card-sized projection of a drug for list queries. Selecting these columns only keeps
+ * the 1000-character description (and dosage) out of list result sets.
+ */
+public record DrugSummary(Long id,
+                          String name,
+                          String type,
+                          String manufacturer,
+                          boolean prescriptionRequired) {}
@@ -1,6 +1,7 @@
 package org.example.pharmacyproject.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.example.pharmacyproject.entities.Prescription;
 
@@ -13,4 +14,13 @@ public interface PrescriptionRepository extends JpaRepository<Prescription, Long
 
     // fetch a single prescription by its id *and* owner’s userId
     Prescription findByIdAndUserId(Long id, Long userId);
+
+    // how often each drug has been prescribed; used as a popularity signal
+    @Query("SELECT p.drug.id AS drugId, COUNT(p) AS total FROM Prescription p GROUP BY p.drug.id")
+    List<DrugPrescriptionCount> countPrescriptionsPerDrug();
+
+    interface DrugPrescriptionCount {
+        Long getDrugId();
+        long getTotal();
+    }
 }
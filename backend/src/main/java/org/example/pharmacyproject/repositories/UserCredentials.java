@@ -0,0 +1,8 @@
+package org.example.pharmacyproject.repositories;
+
+import java.time.LocalDateTime;
+
+/**
+ * When a user's password last changed, without loading the user; null if it never did.
+ */
+public record UserCredentials(Long id, LocalDateTime credentialsChangedAt) {}
@@ -2,10 +2,26 @@ package org.example.pharmacyproject.repositories;
 
 import org.example.pharmacyproject.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 // UserRepository.java
 public interface UserRepository extends JpaRepository<User, Long> {
     User findByEmail(String email);
     boolean existsByEmail(String email);
+
+    @Query("SELECT new org.example.pharmacyproject.repositories.UserCredentials(u.id, u.credentialsChangedAt) " +
+            "FROM User u WHERE u.id = :id")
+    Optional<UserCredentials> findCredentialsById(@Param("id") Long id);
+
+    // replaces the hash only if it is still the one that was checked, so a concurrent password change wins
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+    int updatePasswordIfUnchanged(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
 
@@ -0,0 +1,74 @@
+package org.example.pharmacyproject.search;
+
+/**
+ * Minimal word-aligned bitmap operations over {@code long[]}, indexed by drug ordinal.
+ * Facet values are few and dense, so plain 64-bit words are both compact and fast to intersect.
+ */
+final class Bitmaps {
+
+    static final long[] EMPTY = new long[0];
+
+    private Bitmaps() {}
+
+    /** Sets a bit, growing the array when needed; always use the returned array. */
+    static long[] set(long[] words, int bit) {
+        int word = bit >>> 6;
+        if (word >= words.length) {
+            long[] grown = new long[Math.max(word + 1, words.length * 2)];
+            System.arraycopy(words, 0, grown, 0, words.length);
+            words = grown;
+        }
+        words[word] |= 1L << bit;
+        return words;
+    }
+
+    static void clear(long[] words, int bit) {
+        int word = bit >>> 6;
+        if (word < words.length) {
+            words[word] &= ~(1L << bit);
+        }
+    }
+
+    static long[] and(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = a[i] & b[i];
+        }
+        return result;
+    }
+
+    static int andCardinality(long[] a, long[] b) {
+        int count = 0;
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            count += Long.bitCount(a[i] & b[i]);
+        }
+        return count;
+    }
+
+    static int cardinality(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /** @return the index of the next set bit at or after {@code from}, or -1 */
+    static int nextSetBit(long[] words, int from) {
+        int word = from >>> 6;
+        if (word >= words.length) {
+            return -1;
+        }
+        long current = words[word] & (-1L << from);
+        while (true) {
+            if (current != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(current);
+            }
+            if (++word >= words.length) {
+                return -1;
+            }
+            current = words[word];
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package org.example.pharmacyproject.search;
+
+import org.example.pharmacyproject.catalog.AttributeDictionary;
+import org.example.pharmacyproject.catalog.CatalogSnapshot;
+import org.example.pharmacyproject.entities.Drug;
+import org.example.pharmacyproject.events.DrugCatalogInvalidatedEvent;
+import org.example.pharmacyproject.events.DrugChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap indexes over the low-cardinality drug attributes: type, manufacturer and prescriptionRequired.
+ * <p>
+ * Every drug gets a dense ordinal, and every facet value owns a bitmap of the ordinals carrying it.
+ * Filtering is a chain of bitmap ANDs and each facet count is a single AND-popcount, so no GROUP BY
+ * runs per request. Counts drill down: each facet is counted under every filter except its own, so
+ * picking a type still shows how many drugs the other types would give.
+ * <p>
+ * Type and manufacturer values are held as codes from the {@link CatalogSnapshot} dictionaries, and
+ * each ordinal remembers only its drug id; result drugs are resolved through the snapshot.
+ */
+@Component
+public class DrugFacetIndex {
+
+    private final CatalogSnapshot catalogSnapshot;
+    private final AttributeDictionary types;
+    private final AttributeDictionary manufacturers;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // all guarded by lock; per-ordinal arrays are parallel
+    private long[] drugIds = new long[0];
+    private int[] typeCodes = new int[0];
+    private int[] manufacturerCodes = new int[0];
+    private int nextOrdinal;
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] alive = Bitmaps.EMPTY;
+    private long[] prescriptionRequired = Bitmaps.EMPTY;
+    // bitmaps indexed by dictionary code
+    private long[][] byType = new long[0][];
+    private long[][] byManufacturer = new long[0][];
+    private volatile boolean ready;
+
+    public DrugFacetIndex(CatalogSnapshot catalogSnapshot) {
+        this.catalogSnapshot = catalogSnapshot;
+        this.types = catalogSnapshot.types();
+        this.manufacturers = catalogSnapshot.manufacturers();
+    }
+
+    /**
+     * Outcome of a faceted query. {@code total} and {@code drugs} honour every filter; the counts of
+     * each facet honour all filters but that facet's own.
+     */
+    public record FacetResult(List<Drug> drugs,
+                              int total,
+                              Map<String, Integer> types,
+                              Map<String, Integer> manufacturers,
+                              int prescriptionRequired,
+                              int prescriptionNotRequired) {}
+
+    /** Run by StartupWarmup once the application is up. */
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    /** Bulk writes bypass the entity listener, so reload everything. */
+    @EventListener
+    public void onCatalogInvalidated(DrugCatalogInvalidatedEvent event) {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDrugChanged(DrugChangedEvent event) {
+        if (event.isDelete()) {
+            remove(event.getDrugId());
+        } else {
+            upsert(event.getDrug());
+        }
+    }
+
+    /**
+     * Re-assigns ordinals from scratch, which also compacts away deleted drugs. The snapshot is read
+     * under the write lock so that no concurrent upsert or remove is lost
+     * (see {@link DrugSearchIndex#rebuild()}).
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            List<Drug> all = catalogSnapshot.all();
+            int capacity = Math.max(16, all.size());
+            drugIds = new long[capacity];
+            typeCodes = new int[capacity];
+            manufacturerCodes = new int[capacity];
+            nextOrdinal = 0;
+            ordinals.clear();
+            alive = Bitmaps.EMPTY;
+            prescriptionRequired = Bitmaps.EMPTY;
+            byType = new long[0][];
+            byManufacturer = new long[0][];
+            for (Drug drug : all) {
+                add(drug);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsert(Drug drug) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(drug.getId());
+            if (ordinal == null) {
+                add(drug);
+            } else {
+                clearFacets(ordinal);
+                setFacets(ordinal, drug);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long drugId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(drugId);
+            if (ordinal != null) {
+                clearFacets(ordinal);
+                Bitmaps.clear(alive, ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Applies the facet filters and counts every facet value, each facet without its own filter.
+     *
+     * @param candidateIds drug ids to restrict to (e.g. text-search hits), or null for the whole catalog
+     * @param type                 exact type to keep, or null
+     * @param manufacturer         exact manufacturer to keep, or null
+     * @param requiresPrescription Rx flag to keep, or null
+     * @param limit                maximum number of drugs to return
+     */
+    public FacetResult search(long[] candidateIds, String type, String manufacturer,
+                              Boolean requiresPrescription, int limit) {
+        long[] pageIds;
+        int pageSize = 0;
+        FacetResult counted;
+        lock.readLock().lock();
+        try {
+            long[] base = candidateIds == null ? alive : Bitmaps.and(alive, toBitmap(candidateIds));
+            long[] typeFilter = type == null ? null : bitmap(byType, types.codeOf(type));
+            long[] manufacturerFilter = manufacturer == null ? null : bitmap(byManufacturer, manufacturers.codeOf(manufacturer));
+            long[] rxFilter = requiresPrescription == null ? null
+                    : requiresPrescription ? prescriptionRequired : complement(prescriptionRequired, alive);
+
+            long[] mask = and(base, typeFilter, manufacturerFilter, rxFilter);
+            long[] rxFacet = and(base, typeFilter, manufacturerFilter);
+            int total = Bitmaps.cardinality(mask);
+            int rxCount = Bitmaps.andCardinality(rxFacet, prescriptionRequired);
+
+            pageIds = new long[Math.min(limit, total)];
+            for (int ordinal = Bitmaps.nextSetBit(mask, 0);
+                 ordinal >= 0 && pageSize < pageIds.length;
+                 ordinal = Bitmaps.nextSetBit(mask, ordinal + 1)) {
+                pageIds[pageSize++] = drugIds[ordinal];
+            }
+            counted = new FacetResult(List.of(), total,
+                    counts(byType, types, and(base, manufacturerFilter, rxFilter)),
+                    counts(byManufacturer, manufacturers, and(base, typeFilter, rxFilter)),
+                    rxCount, Bitmaps.cardinality(rxFacet) - rxCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // only the returned page is resolved, outside the lock
+        List<Drug> page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            catalogSnapshot.findById(pageIds[i]).ifPresent(page::add);
+        }
+        return new FacetResult(page, counted.total(), counted.types(), counted.manufacturers(),
+                counted.prescriptionRequired(), counted.prescriptionNotRequired());
+    }
+
+    private void add(Drug drug) {
+        int ordinal = nextOrdinal++;
+        if (ordinal >= drugIds.length) {
+            int capacity = Math.max(16, drugIds.length * 2);
+            drugIds = Arrays.copyOf(drugIds, capacity);
+            typeCodes = Arrays.copyOf(typeCodes, capacity);
+            manufacturerCodes = Arrays.copyOf(manufacturerCodes, capacity);
+        }
+        drugIds[ordinal] = drug.getId();
+        ordinals.put(drug.getId(), ordinal);
+        alive = Bitmaps.set(alive, ordinal);
+        setFacets(ordinal, drug);
+    }
+
+    private void setFacets(int ordinal, Drug drug) {
+        int type = types.encode(drug.getType());
+        int manufacturer = manufacturers.encode(drug.getManufacturer());
+        typeCodes[ordinal] = type;
+        manufacturerCodes[ordinal] = manufacturer;
+        byType = withBit(byType, type, ordinal);
+        byManufacturer = withBit(byManufacturer, manufacturer, ordinal);
+        if (drug.isPrescriptionRequired()) {
+            prescriptionRequired = Bitmaps.set(prescriptionRequired, ordinal);
+        }
+    }
+
+    private void clearFacets(int ordinal) {
+        Bitmaps.clear(bitmap(byType, typeCodes[ordinal]), ordinal);
+        Bitmaps.clear(bitmap(byManufacturer, manufacturerCodes[ordinal]), ordinal);
+        Bitmaps.clear(prescriptionRequired, ordinal);
+    }
+
+    /** Sets the ordinal in the bitmap of the code, growing the table for a new code; null values are not faceted. */
+    private static long[][] withBit(long[][] facet, int code, int ordinal) {
+        if (code == AttributeDictionary.NULL_CODE) {
+            return facet;
+        }
+        if (code >= facet.length) {
+            facet = Arrays.copyOf(facet, Math.max(code + 1, facet.length * 2));
+        }
+        facet[code] = Bitmaps.set(facet[code] == null ? Bitmaps.EMPTY : facet[code], ordinal);
+        return facet;
+    }
+
+    private static long[] bitmap(long[][] facet, int code) {
+        return code >= 0 && code < facet.length && facet[code] != null ? facet[code] : Bitmaps.EMPTY;
+    }
+
+    private long[] toBitmap(long[] ids) {
+        long[] bits = new long[alive.length];
+        for (long id : ids) {
+            Integer ordinal = ordinals.get(id);
+            if (ordinal != null) {
+                bits = Bitmaps.set(bits, ordinal);
+            }
+        }
+        return bits;
+    }
+
+    /** The AND of the bitmaps, skipping nulls (filters not given). */
+    private static long[] and(long[] base, long[]... filters) {
+        long[] result = base;
+        for (long[] filter : filters) {
+            if (filter != null) {
+                result = Bitmaps.and(result, filter);
+            }
+        }
+        return result;
+    }
+
+    private static long[] complement(long[] bits, long[] universe) {
+        long[] result = universe.clone();
+        for (int i = 0; i < Math.min(bits.length, result.length); i++) {
+            result[i] &= ~bits[i];
+        }
+        return result;
+    }
+
+    /** Non-zero counts per facet value, largest first. */
+    private static Map<String, Integer> counts(long[][] facet, AttributeDictionary dictionary, long[] mask) {
+        List<Map.Entry<String, Integer>> counted = new ArrayList<>();
+        for (int code = 0; code < facet.length; code++) {
+            if (facet[code] == null) {
+                continue;
+            }
+            int count = Bitmaps.andCardinality(mask, facet[code]);
+            if (count > 0) {
+                counted.add(Map.entry(dictionary.decode(code), count));
+            }
+        }
+        counted.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Integer> ordered = new LinkedHashMap<>();
+        counted.forEach(entry -> ordered.put(entry.getKey(), entry.getValue()));
+        return ordered;
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.pharmacyproject.search;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the FULLTEXT index that {@code app.search.engine=fulltext} searches against.
+ * JPA index annotations cannot declare FULLTEXT, so it is added here once Hibernate has created the table.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "fulltext")
+public class DrugFullTextSchema {
+
+    static final String INDEX_NAME = "ft_drugs_text";
+
+    private static final Logger log = LoggerFactory.getLogger(DrugFullTextSchema.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // the EntityManagerFactory is only injected so that schema generation has run before ensureIndex
+    public DrugFullTextSchema(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void ensureIndex() {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = 'drugs' AND index_name = ?",
+                Integer.class, INDEX_NAME);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        jdbcTemplate.execute("ALTER TABLE drugs ADD FULLTEXT INDEX " + INDEX_NAME + " (name, manufacturer, description)");
+        log.info("Created FULLTEXT index {} in {} ms", INDEX_NAME, (System.nanoTime() - started) / 1_000_000);
+    }
+}
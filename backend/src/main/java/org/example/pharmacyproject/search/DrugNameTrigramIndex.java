@@ -0,0 +1,242 @@
+package org.example.pharmacyproject.search;
+
+import org.example.pharmacyproject.catalog.CatalogSnapshot;
+import org.example.pharmacyproject.commonTypes.SearchEngine;
+import org.example.pharmacyproject.dosage.DosageFilter;
+import org.example.pharmacyproject.dosage.DosageParser;
+import org.example.pharmacyproject.entities.Drug;
+import org.example.pharmacyproject.events.DrugCatalogInvalidatedEvent;
+import org.example.pharmacyproject.events.DrugChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trigram index over drug names for typo-tolerant lookups.
+ * <p>
+ * Names and queries are broken into padded character trigrams and ranked by Dice similarity
+ * ({@code 2 * shared / (queryTrigrams + nameTrigrams)}). Candidates are only generated from the
+ * rarest query trigrams: a name that reaches the similarity threshold must share at least
+ * {@code minOverlap} trigrams with the query, so it must appear in one of the
+ * {@code queryTrigrams - minOverlap + 1} rarest posting lists. Common trigrams are used for scoring only.
+ * Only ids, trigrams and parsed dosage are kept here: candidates are scored and dosage-filtered on
+ * those, and only the final top matches are resolved through the {@link CatalogSnapshot}.
+ */
+@Component
+public class DrugNameTrigramIndex {
+
+    private final CatalogSnapshot catalogSnapshot;
+    // false when app.search.engine=fulltext: the index then stays empty and never becomes ready
+    private final boolean enabled;
+    private final double minSimilarity;
+
+    private volatile IndexState state = new IndexState();
+    private volatile boolean ready;
+
+    public DrugNameTrigramIndex(CatalogSnapshot catalogSnapshot,
+                                @Value("${app.search.fuzzy.min-similarity:0.3}") double minSimilarity,
+                                @Value("${app.search.engine:memory}") SearchEngine searchEngine) {
+        this.catalogSnapshot = catalogSnapshot;
+        this.enabled = searchEngine == SearchEngine.MEMORY;
+        this.minSimilarity = minSimilarity;
+    }
+
+    private record ScoredName(long id, double similarity) {}
+
+    /** The trigrams of a drug's name, and its dosage for filtering. */
+    private record IndexedName(String[] trigrams, DosageParser.ParsedDosage dosage) {}
+
+    private static final class IndexState {
+        final ConcurrentHashMap<String, long[]> postings = new ConcurrentHashMap<>();
+        // indexed name of each drug, by drug id
+        final ConcurrentHashMap<Long, IndexedName> names = new ConcurrentHashMap<>();
+    }
+
+    /** Run by StartupWarmup once the application is up. */
+    public void loadOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        rebuild();
+    }
+
+    /** Bulk writes bypass the entity listener, so reload everything. */
+    @EventListener
+    public void onCatalogInvalidated(DrugCatalogInvalidatedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDrugChanged(DrugChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.isDelete()) {
+            remove(event.getDrugId());
+        } else {
+            upsert(event.getDrug());
+        }
+    }
+
+    /**
+     * Replaces the whole index with the current catalog snapshot, read under the lock so that no
+     * concurrent upsert or remove is lost (see {@link DrugSearchIndex#rebuild()}).
+     */
+    public synchronized void rebuild() {
+        List<Drug> drugs = catalogSnapshot.all();
+        Map<String, List<Long>> collected = new HashMap<>();
+        IndexState fresh = new IndexState();
+        for (Drug drug : drugs) {
+            String[] trigrams = trigramsOf(drug.getName());
+            fresh.names.put(drug.getId(), new IndexedName(trigrams, drug.parsedDosage()));
+            for (String trigram : trigrams) {
+                collected.computeIfAbsent(trigram, t -> new ArrayList<>()).add(drug.getId());
+            }
+        }
+        collected.forEach((trigram, ids) -> {
+            long[] sorted = ids.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            fresh.postings.put(trigram, sorted);
+        });
+        state = fresh;
+        ready = true;
+    }
+
+    public synchronized void upsert(Drug drug) {
+        remove(drug.getId());
+        IndexState current = state;
+        String[] trigrams = trigramsOf(drug.getName());
+        for (String trigram : trigrams) {
+            current.postings.compute(trigram, (t, ids) -> Postings.withId(ids, drug.getId()));
+        }
+        current.names.put(drug.getId(), new IndexedName(trigrams, drug.parsedDosage()));
+    }
+
+    public synchronized void remove(Long drugId) {
+        IndexState current = state;
+        IndexedName previous = current.names.remove(drugId);
+        if (previous == null) {
+            return;
+        }
+        for (String trigram : previous.trigrams()) {
+            current.postings.computeIfPresent(trigram, (t, ids) -> Postings.withoutId(ids, drugId));
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Finds the drugs whose names are most similar to the query, best match first.
+     *
+     * @param query possibly misspelled drug name
+     * @param limit maximum number of drugs to return
+     * @return up to {@code limit} drugs at or above the configured similarity threshold
+     */
+    public List<Drug> search(String query, int limit) {
+        return search(query, DosageFilter.NONE, limit);
+    }
+
+    /**
+     * Like {@link #search(String, int)}, keeping only drugs that pass the dosage filter.
+     */
+    public List<Drug> search(String query, DosageFilter filter, int limit) {
+        DosageFilter dosage = filter == null || filter.isEmpty() ? null : filter;
+        String[] queryTrigrams = trigramsOf(query);
+        if (queryTrigrams.length == 0 || limit <= 0) {
+            return new ArrayList<>();
+        }
+        IndexState current = state;
+
+        long[][] lists = new long[queryTrigrams.length][];
+        for (int i = 0; i < queryTrigrams.length; i++) {
+            long[] ids = current.postings.get(queryTrigrams[i]);
+            lists[i] = ids == null ? new long[0] : ids;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(ids -> ids.length));
+
+        int minOverlap = Math.max(1,
+                (int) Math.ceil(minSimilarity * queryTrigrams.length / (2.0 - minSimilarity)));
+        int candidateLists = queryTrigrams.length - minOverlap + 1;
+
+        // Pass 1: only the rarest lists may introduce candidates.
+        Map<Long, int[]> overlap = new HashMap<>();
+        for (int i = 0; i < candidateLists; i++) {
+            for (long id : lists[i]) {
+                overlap.computeIfAbsent(id, k -> new int[1])[0]++;
+            }
+        }
+        // Pass 2: the common lists only add to the score of known candidates.
+        for (int i = candidateLists; i < lists.length; i++) {
+            long[] ids = lists[i];
+            for (Map.Entry<Long, int[]> entry : overlap.entrySet()) {
+                if (Postings.contains(ids, entry.getKey())) {
+                    entry.getValue()[0]++;
+                }
+            }
+        }
+
+        Comparator<ScoredName> worstFirst = Comparator.comparingDouble(ScoredName::similarity)
+                .thenComparing(ScoredName::id, Comparator.reverseOrder());
+        PriorityQueue<ScoredName> top = new PriorityQueue<>(limit + 1, worstFirst);
+        for (Map.Entry<Long, int[]> entry : overlap.entrySet()) {
+            IndexedName name = current.names.get(entry.getKey());
+            if (name == null) {
+                continue;
+            }
+            double similarity = 2.0 * entry.getValue()[0] / (queryTrigrams.length + name.trigrams().length);
+            if (similarity < minSimilarity || (dosage != null && !dosage.matches(name.dosage()))) {
+                continue;
+            }
+            top.add(new ScoredName(entry.getKey(), similarity));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<ScoredName> ranked = new ArrayList<>(top);
+        ranked.sort(worstFirst.reversed());
+        List<Drug> results = new ArrayList<>(ranked.size());
+        for (ScoredName scored : ranked) {
+            catalogSnapshot.findById(scored.id()).ifPresent(results::add);
+        }
+        return results;
+    }
+
+    /**
+     * Distinct trigrams of each word, padded with two leading blanks and one trailing blank
+     * so that word starts weigh more than word endings.
+     */
+    static String[] trigramsOf(String text) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        if (text != null) {
+            for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (word.isEmpty()) {
+                    continue;
+                }
+                String padded = "  " + word + " ";
+                for (int i = 0; i + 3 <= padded.length(); i++) {
+                    trigrams.add(padded.substring(i, i + 3));
+                }
+            }
+        }
+        return trigrams.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,482 @@
+package org.example.pharmacyproject.search;
+
+import org.example.pharmacyproject.catalog.CatalogSnapshot;
+import org.example.pharmacyproject.commonTypes.SearchEngine;
+import org.example.pharmacyproject.dosage.DosageFilter;
+import org.example.pharmacyproject.dosage.DosageParser;
+import org.example.pharmacyproject.entities.Drug;
+import org.example.pharmacyproject.events.DrugCatalogInvalidatedEvent;
+import org.example.pharmacyproject.events.DrugChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token-based inverted index over drug name, manufacturer and description.
+ * <p>
+ * Each term maps to a sorted array of drug ids. Queries are AND-of-terms where every query term
+ * matches as a prefix, so partially typed words from the search bar still hit. Readers never lock:
+ * posting arrays are replaced, never modified, and a full rebuild swaps in a fresh state at once.
+ * <p>
+ * {@link #searchRanked} orders matches by BM25F: per-field term frequencies are length-normalised,
+ * weighted name &gt; manufacturer &gt; description, and summed before BM25 saturation. Only the best
+ * {@code limit} matches are kept in a bounded heap, so ranking n matches costs O(n log limit).
+ * Broad queries are scored in shards on the {@link ShardedSearchExecutor} pool.
+ * <p>
+ * The index holds drug ids, terms and parsed dosage only. Candidates are scored and dosage-filtered
+ * on that alone, and only the final top hits are resolved through the {@link CatalogSnapshot}, which
+ * is also what the index is built from.
+ */
+@Component
+public class DrugSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DrugSearchIndex.class);
+
+    // BM25F parameters; fields are indexed in the order name, manufacturer, description
+    private static final double[] FIELD_WEIGHTS = { 3.0, 2.0, 1.0 };
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final CatalogSnapshot catalogSnapshot;
+    private final ShardedSearchExecutor shardedSearch;
+    // false when app.search.engine=fulltext: the index then stays empty and never becomes ready
+    private final boolean enabled;
+
+    private volatile IndexState state = new IndexState();
+    private volatile boolean ready;
+
+    public DrugSearchIndex(CatalogSnapshot catalogSnapshot,
+                           ShardedSearchExecutor shardedSearch,
+                           @Value("${app.search.engine:memory}") SearchEngine searchEngine) {
+        this.catalogSnapshot = catalogSnapshot;
+        this.shardedSearch = shardedSearch;
+        this.enabled = searchEngine == SearchEngine.MEMORY;
+    }
+
+    /**
+     * A drug id plus the sorted, distinct terms it was indexed under, the term counts of each field,
+     * and its parsed dosage for filtering.
+     */
+    private record IndexedDrug(long id, String[] terms, FieldTerms[] fields, DosageParser.ParsedDosage dosage) {}
+
+    /** A search hit with its BM25F relevance score. */
+    public record ScoredDrug(Drug drug, double score) {}
+
+    /** A candidate's score, before the drug is resolved. */
+    private record ScoredId(long id, double score) {}
+
+    private static final class IndexState {
+        final ConcurrentSkipListMap<String, long[]> postings = new ConcurrentSkipListMap<>();
+        final ConcurrentHashMap<Long, IndexedDrug> documents = new ConcurrentHashMap<>();
+        // summed field lengths, for the average field length in BM25 length normalisation
+        final AtomicLongArray fieldLengths = new AtomicLongArray(FIELD_WEIGHTS.length);
+
+        void addLengths(IndexedDrug doc, int sign) {
+            for (int f = 0; f < doc.fields().length; f++) {
+                fieldLengths.addAndGet(f, sign * doc.fields()[f].length());
+            }
+        }
+    }
+
+    /** Run by StartupWarmup once the application is up. */
+    public void loadOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        rebuild();
+    }
+
+    /** Bulk writes bypass the entity listener, so reload everything. */
+    @EventListener
+    public void onCatalogInvalidated(DrugCatalogInvalidatedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDrugChanged(DrugChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.isDelete()) {
+            remove(event.getDrugId());
+        } else {
+            upsert(event.getDrug());
+        }
+    }
+
+    /**
+     * Replaces the whole index with the current catalog snapshot.
+     * <p>
+     * The snapshot is read under the same lock as {@link #upsert} and {@link #remove}. The snapshot
+     * applies a change before the index listeners see it, so every change is either already in what
+     * is read here or waits for the lock and then applies to the new state.
+     */
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        List<Drug> drugs = catalogSnapshot.all();
+        Map<String, List<Long>> collected = new HashMap<>();
+        IndexState fresh = new IndexState();
+        for (Drug drug : drugs) {
+            IndexedDrug doc = indexed(drug);
+            fresh.documents.put(drug.getId(), doc);
+            fresh.addLengths(doc, 1);
+            for (String term : doc.terms()) {
+                collected.computeIfAbsent(term, t -> new ArrayList<>()).add(drug.getId());
+            }
+        }
+        collected.forEach((term, ids) -> {
+            long[] sorted = ids.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            fresh.postings.put(term, sorted);
+        });
+        state = fresh;
+        ready = true;
+        log.info("Drug search index built: {} drugs, {} terms in {} ms",
+                fresh.documents.size(), fresh.postings.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public synchronized void upsert(Drug drug) {
+        IndexState current = state;
+        IndexedDrug previous = current.documents.get(drug.getId());
+        IndexedDrug doc = indexed(drug);
+        String[] terms = doc.terms();
+        for (String term : terms) {
+            if (previous == null || Arrays.binarySearch(previous.terms(), term) < 0) {
+                current.postings.compute(term, (t, ids) -> Postings.withId(ids, drug.getId()));
+            }
+        }
+        if (previous != null) {
+            for (String term : previous.terms()) {
+                if (Arrays.binarySearch(terms, term) < 0) {
+                    current.postings.computeIfPresent(term, (t, ids) -> Postings.withoutId(ids, drug.getId()));
+                }
+            }
+            current.addLengths(previous, -1);
+        }
+        current.documents.put(drug.getId(), doc);
+        current.addLengths(doc, 1);
+    }
+
+    public synchronized void remove(Long drugId) {
+        IndexState current = state;
+        IndexedDrug previous = current.documents.remove(drugId);
+        if (previous == null) {
+            return;
+        }
+        current.addLengths(previous, -1);
+        for (String term : previous.terms()) {
+            current.postings.computeIfPresent(term, (t, ids) -> Postings.withoutId(ids, drugId));
+        }
+    }
+
+    /**
+     * @return true once the initial load has completed
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return state.documents.size();
+    }
+
+    /**
+     * Finds drugs containing every query term (as a word prefix), ordered by id.
+     *
+     * @param query free text as typed by the user
+     * @param limit maximum number of drugs to return
+     * @return matching drugs, at most {@code limit}
+     */
+    public List<Drug> search(String query, int limit) {
+        List<Drug> drugs = new ArrayList<>();
+        for (long id : match(query, limit)) {
+            catalogSnapshot.findById(id).ifPresent(drugs::add);
+        }
+        return drugs;
+    }
+
+    /**
+     * Ids of every drug matching the query, ascending; used to combine text search with other filters.
+     */
+    public long[] matchingIds(String query) {
+        return match(query, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Finds drugs containing every query term (as a word prefix), most relevant first.
+     * Every match is scored, but only the best {@code limit} are kept.
+     *
+     * @param query free text as typed by the user
+     * @param limit maximum number of drugs to return
+     * @return the top matches with their scores, best first
+     */
+    public List<ScoredDrug> searchRanked(String query, int limit) {
+        return searchRanked(query, DosageFilter.NONE, limit);
+    }
+
+    /**
+     * Like {@link #searchRanked(String, int)}, keeping only drugs that pass the dosage filter.
+     */
+    public List<ScoredDrug> searchRanked(String query, DosageFilter filter, int limit) {
+        return searchRanked(query, filter, limit, 0);
+    }
+
+    /**
+     * Ranked search scored in exactly {@code shards} shards (capped at the pool size), whatever the
+     * query's cost; 0 lets the executor decide. Lets the same query be timed at different core counts.
+     */
+    public List<ScoredDrug> searchRanked(String query, DosageFilter filter, int limit, int shards) {
+        List<String> queryTerms = SearchTokenizer.queryTerms(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        DosageFilter dosage = filter == null || filter.isEmpty() ? null : filter;
+        IndexState current = state;
+        long[] postingCounts = new long[queryTerms.size()];
+        MergedPostings candidates = candidates(current, queryTerms, postingCounts);
+        if (candidates == null) {
+            return new ArrayList<>();
+        }
+
+        int documentCount = Math.max(1, current.documents.size());
+        double[] idf = new double[queryTerms.size()];
+        for (int i = 0; i < idf.length; i++) {
+            // a prefix expanding to several terms may count a drug more than once; cap at the corpus size
+            double df = Math.min(postingCounts[i], documentCount);
+            idf[i] = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+        }
+        double[] averageLengths = new double[FIELD_WEIGHTS.length];
+        for (int f = 0; f < averageLengths.length; f++) {
+            averageLengths[f] = Math.max(1.0, (double) current.fieldLengths.get(f) / documentCount);
+        }
+
+        Comparator<ScoredId> worstFirst = Comparator.comparingDouble(ScoredId::score)
+                .thenComparing(ScoredId::id, Comparator.reverseOrder());
+        long cost = Arrays.stream(postingCounts).min().orElse(0);
+        List<ScoredId> ranked;
+        if (shards > 1 || (shards == 0 && shardedSearch.worthSplitting(cost))) {
+            // shards need random access, so the candidate stream is drained into an array first
+            long[] ids = drain(candidates, cost);
+            ranked = shardedSearch.topK(ids.length,
+                    i -> scored(current, ids[i], queryTerms, dosage, idf, averageLengths),
+                    worstFirst, limit, shards == 0 ? Integer.MAX_VALUE : shards);
+        } else {
+            PriorityQueue<ScoredId> top = new PriorityQueue<>(limit + 1, worstFirst);
+            while (candidates.hasNext()) {
+                ScoredId hit = scored(current, candidates.next(), queryTerms, dosage, idf, averageLengths);
+                if (hit == null) {
+                    continue;
+                }
+                if (top.size() < limit) {
+                    top.add(hit);
+                } else if (worstFirst.compare(hit, top.peek()) > 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+            ranked = new ArrayList<>(top);
+            ranked.sort(worstFirst.reversed());
+        }
+
+        List<ScoredDrug> hits = new ArrayList<>(ranked.size());
+        for (ScoredId hit : ranked) {
+            catalogSnapshot.findById(hit.id()).ifPresent(drug -> hits.add(new ScoredDrug(drug, hit.score())));
+        }
+        return hits;
+    }
+
+    /**
+     * The score for one candidate id, or null when the drug is gone, misses a query term or fails the
+     * dosage filter (null for none). Reads only the index, so shards may call it concurrently.
+     */
+    private static ScoredId scored(IndexState current, long id, List<String> queryTerms, DosageFilter dosage,
+                                   double[] idf, double[] averageLengths) {
+        IndexedDrug doc = current.documents.get(id);
+        if (doc == null || !containsAllPrefixes(doc.terms(), queryTerms)) {
+            return null;
+        }
+        if (dosage != null && !dosage.matches(doc.dosage())) {
+            return null;
+        }
+        return new ScoredId(doc.id(), bm25f(doc, queryTerms, idf, averageLengths));
+    }
+
+    private static long[] drain(MergedPostings candidates, long expected) {
+        long[] ids = new long[(int) Math.min(Math.max(16, expected), Integer.MAX_VALUE - 8)];
+        int count = 0;
+        while (candidates.hasNext()) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+            ids[count++] = candidates.next();
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    private long[] match(String query, int limit) {
+        List<String> queryTerms = SearchTokenizer.queryTerms(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return new long[0];
+        }
+        IndexState current = state;
+        MergedPostings candidates = candidates(current, queryTerms, new long[queryTerms.size()]);
+        if (candidates == null) {
+            return new long[0];
+        }
+        long[] results = new long[16];
+        int count = 0;
+        while (count < limit && candidates.hasNext()) {
+            IndexedDrug doc = current.documents.get(candidates.next());
+            if (doc != null && containsAllPrefixes(doc.terms(), queryTerms)) {
+                if (count == results.length) {
+                    results = Arrays.copyOf(results, count * 2);
+                }
+                results[count++] = doc.id();
+            }
+        }
+        return Arrays.copyOf(results, count);
+    }
+
+    /**
+     * Ids that may match, ascending: the postings of the query term with the fewest of them.
+     * The other terms are checked per document.
+     *
+     * @param postingCounts filled with the number of postings behind each query term
+     * @return null when some query term matches nothing
+     */
+    private static MergedPostings candidates(IndexState current, List<String> queryTerms, long[] postingCounts) {
+        Collection<long[]> driver = null;
+        long driverCost = Long.MAX_VALUE;
+        for (int i = 0; i < queryTerms.size(); i++) {
+            Collection<long[]> expansions = expand(current.postings, queryTerms.get(i));
+            if (expansions.isEmpty()) {
+                return null;
+            }
+            long cost = 0;
+            for (long[] ids : expansions) {
+                cost += ids.length;
+            }
+            postingCounts[i] = cost;
+            if (cost < driverCost) {
+                driverCost = cost;
+                driver = expansions;
+            }
+        }
+        return new MergedPostings(driver);
+    }
+
+    /**
+     * BM25F: weighted, length-normalised term frequency summed over fields, then saturated once per query term.
+     */
+    private static double bm25f(IndexedDrug doc, List<String> queryTerms, double[] idf, double[] averageLengths) {
+        double score = 0;
+        for (int i = 0; i < queryTerms.size(); i++) {
+            double tf = 0;
+            for (int f = 0; f < FIELD_WEIGHTS.length; f++) {
+                FieldTerms field = doc.fields()[f];
+                int count = field.prefixCount(queryTerms.get(i));
+                if (count > 0) {
+                    tf += FIELD_WEIGHTS[f] * count / (1 - B + B * field.length() / averageLengths[f]);
+                }
+            }
+            score += idf[i] * tf * (K1 + 1) / (tf + K1);
+        }
+        return score;
+    }
+
+    private static Collection<long[]> expand(NavigableMap<String, long[]> postings, String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+    }
+
+    private static boolean containsAllPrefixes(String[] sortedTerms, List<String> prefixes) {
+        for (String prefix : prefixes) {
+            int idx = Arrays.binarySearch(sortedTerms, prefix);
+            if (idx < 0) {
+                int insertion = -idx - 1;
+                if (insertion >= sortedTerms.length || !sortedTerms[insertion].startsWith(prefix)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static IndexedDrug indexed(Drug drug) {
+        TreeSet<String> terms = new TreeSet<>();
+        terms.addAll(SearchTokenizer.indexTerms(drug.getName()));
+        terms.addAll(SearchTokenizer.indexTerms(drug.getManufacturer()));
+        terms.addAll(SearchTokenizer.indexTerms(drug.getDescription()));
+        FieldTerms[] fields = {
+                FieldTerms.of(drug.getName()),
+                FieldTerms.of(drug.getManufacturer()),
+                FieldTerms.of(drug.getDescription())
+        };
+        return new IndexedDrug(drug.getId(), terms.toArray(new String[0]), fields, drug.parsedDosage());
+    }
+
+    /**
+     * Lazily merges several sorted posting arrays into one ascending, de-duplicated id stream.
+     */
+    private static final class MergedPostings {
+        private final PriorityQueue<int[]> heads;
+        private final List<long[]> lists;
+        private long last = Long.MIN_VALUE;
+
+        MergedPostings(Collection<long[]> postings) {
+            this.lists = new ArrayList<>(postings);
+            this.heads = new PriorityQueue<>(Math.max(1, lists.size()),
+                    Comparator.comparingLong(head -> lists.get(head[0])[head[1]]));
+            for (int i = 0; i < lists.size(); i++) {
+                heads.add(new int[] { i, 0 });
+            }
+            skipDuplicates();
+        }
+
+        boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        long next() {
+            int[] head = heads.poll();
+            last = lists.get(head[0])[head[1]];
+            if (++head[1] < lists.get(head[0]).length) {
+                heads.add(head);
+            }
+            skipDuplicates();
+            return last;
+        }
+
+        private void skipDuplicates() {
+            while (!heads.isEmpty()) {
+                int[] head = heads.peek();
+                if (lists.get(head[0])[head[1]] != last) {
+                    return;
+                }
+                heads.poll();
+                if (++head[1] < lists.get(head[0]).length) {
+                    heads.add(head);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package org.example.pharmacyproject.search;
+
+import jakarta.annotation.PreDestroy;
+import org.example.pharmacyproject.catalog.CatalogSnapshot;
+import org.example.pharmacyproject.entities.Drug;
+import org.example.pharmacyproject.events.DrugCatalogInvalidatedEvent;
+import org.example.pharmacyproject.events.DrugChangedEvent;
+import org.example.pharmacyproject.repositories.DrugRepository;
+import org.example.pharmacyproject.repositories.PrescriptionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Prefix autocomplete over drug names and manufacturers, ranked by popularity.
+ * <p>
+ * Suggestions are served from an immutable {@link PrefixTable}: a sorted key array in which every
+ * trie node is the contiguous range of keys sharing its prefix. Small ranges are ranked on the fly;
+ * prefixes covering more than {@value #SCAN_LIMIT} keys have their top completions precomputed.
+ * Catalog changes trigger a debounced rebuild on a background thread, and the finished table is
+ * swapped in with a single volatile write, so lookups never wait on a rebuild.
+ */
+@Component
+public class DrugSuggester {
+
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int SCAN_LIMIT = 256;
+
+    private static final Logger log = LoggerFactory.getLogger(DrugSuggester.class);
+
+    public enum Kind {
+        DRUG,
+        MANUFACTURER
+    }
+
+    public record Suggestion(String text, Kind kind) {}
+
+    private final DrugRepository drugRepository;
+    private final CatalogSnapshot catalogSnapshot;
+    private final PrescriptionRepository prescriptionRepository;
+    private final long debounceMs;
+    private final long refreshIntervalMs;
+    private final ScheduledExecutorService rebuildExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "drug-suggester-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private volatile PrefixTable table = PrefixTable.build(List.of());
+
+    public DrugSuggester(DrugRepository drugRepository,
+                         CatalogSnapshot catalogSnapshot,
+                         PrescriptionRepository prescriptionRepository,
+                         @Value("${app.search.suggest.rebuild-debounce-ms:1000}") long debounceMs,
+                         @Value("${app.search.suggest.refresh-interval-ms:600000}") long refreshIntervalMs) {
+        this.drugRepository = drugRepository;
+        this.catalogSnapshot = catalogSnapshot;
+        this.prescriptionRepository = prescriptionRepository;
+        this.debounceMs = debounceMs;
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    /** Run by StartupWarmup once the application is up. */
+    public void loadOnStartup() {
+        rebuildNow();
+        // prescriptions shift popularity without touching the catalog, so refresh periodically too
+        rebuildExecutor.scheduleWithFixedDelay(this::requestRebuild, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDrugChanged(DrugChangedEvent event) {
+        requestRebuild();
+    }
+
+    @EventListener
+    public void onCatalogInvalidated(DrugCatalogInvalidatedEvent event) {
+        requestRebuild();
+    }
+
+    /**
+     * Schedules a rebuild unless one is already pending, so a burst of changes costs one rebuild.
+     */
+    public void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.schedule(this::rebuildNow, debounceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * @param prefix what the user has typed so far
+     * @param limit  number of suggestions wanted, capped at {@value #MAX_SUGGESTIONS}
+     * @return most popular names/manufacturers starting with the prefix
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        return table.lookup(prefix.trim().toLowerCase(Locale.ROOT), Math.min(limit, MAX_SUGGESTIONS));
+    }
+
+    private void rebuildNow() {
+        rebuildPending.set(false);
+        try {
+            long started = System.nanoTime();
+            Map<Long, Long> prescriptionCounts = new HashMap<>();
+            for (PrescriptionRepository.DrugPrescriptionCount count : prescriptionRepository.countPrescriptionsPerDrug()) {
+                prescriptionCounts.put(count.getDrugId(), count.getTotal());
+            }
+            Collection<Drug> drugs = catalogSnapshot.isReady() ? catalogSnapshot.all() : drugRepository.findAll();
+            PrefixTable rebuilt = PrefixTable.build(weighEntries(drugs, prescriptionCounts));
+            table = rebuilt;
+            log.info("Drug suggestions rebuilt: {} entries, {} precomputed prefixes in {} ms",
+                    rebuilt.keys.length, rebuilt.heavyPrefixes.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            // keep serving the previous table
+            log.warn("Drug suggestion rebuild failed", e);
+        }
+    }
+
+    /**
+     * Each drug contributes (times prescribed + 1) to its name and to its manufacturer.
+     */
+    private static List<PrefixTable.Entry> weighEntries(Collection<Drug> drugs, Map<Long, Long> prescriptionCounts) {
+        Map<String, Long> names = new HashMap<>();
+        Map<String, Long> manufacturers = new HashMap<>();
+        for (Drug drug : drugs) {
+            long weight = prescriptionCounts.getOrDefault(drug.getId(), 0L) + 1;
+            names.merge(drug.getName(), weight, Long::sum);
+            manufacturers.merge(drug.getManufacturer(), weight, Long::sum);
+        }
+        List<PrefixTable.Entry> entries = new ArrayList<>(names.size() + manufacturers.size());
+        names.forEach((text, weight) -> entries.add(new PrefixTable.Entry(text, Kind.DRUG, weight)));
+        manufacturers.forEach((text, weight) -> entries.add(new PrefixTable.Entry(text, Kind.MANUFACTURER, weight)));
+        return entries;
+    }
+
+    /**
+     * Immutable prefix structure. Never modified after {@link #build}.
+     */
+    static final class PrefixTable {
+
+        record Entry(String text, Kind kind, long weight) {}
+
+        final String[] keys;              // lowercase, sorted
+        final String[] texts;             // original spelling, parallel to keys
+        final Kind[] kinds;
+        final long[] weights;
+        final Map<String, int[]> heavyPrefixes;   // prefix -> indexes of its top completions, best first
+
+        private PrefixTable(String[] keys, String[] texts, Kind[] kinds, long[] weights, Map<String, int[]> heavyPrefixes) {
+            this.keys = keys;
+            this.texts = texts;
+            this.kinds = kinds;
+            this.weights = weights;
+            this.heavyPrefixes = heavyPrefixes;
+        }
+
+        static PrefixTable build(List<Entry> entries) {
+            List<Entry> sorted = new ArrayList<>(entries);
+            sorted.removeIf(entry -> entry.text() == null || entry.text().isBlank());
+            sorted.sort(Comparator.comparing((Entry entry) -> entry.text().toLowerCase(Locale.ROOT))
+                    .thenComparing(Entry::kind));
+            int n = sorted.size();
+            String[] keys = new String[n];
+            String[] texts = new String[n];
+            Kind[] kinds = new Kind[n];
+            long[] weights = new long[n];
+            int maxLength = 0;
+            for (int i = 0; i < n; i++) {
+                Entry entry = sorted.get(i);
+                keys[i] = entry.text().toLowerCase(Locale.ROOT);
+                texts[i] = entry.text();
+                kinds[i] = entry.kind();
+                weights[i] = entry.weight();
+                maxLength = Math.max(maxLength, keys[i].length());
+            }
+
+            PrefixTable table = new PrefixTable(keys, texts, kinds, weights, new HashMap<>());
+            // Ranges at depth L+1 nest inside ranges at depth L, so stop at the first depth with no heavy range.
+            for (int depth = 1; depth <= maxLength; depth++) {
+                boolean anyHeavy = false;
+                int start = 0;
+                while (start < n) {
+                    if (keys[start].length() < depth) {
+                        start++;
+                        continue;
+                    }
+                    String prefix = keys[start].substring(0, depth);
+                    int end = start + 1;
+                    while (end < n && keys[end].startsWith(prefix)) {
+                        end++;
+                    }
+                    if (end - start > SCAN_LIMIT) {
+                        anyHeavy = true;
+                        table.heavyPrefixes.put(prefix, table.topK(start, end, MAX_SUGGESTIONS));
+                    }
+                    start = end;
+                }
+                if (!anyHeavy) {
+                    break;
+                }
+            }
+            return table;
+        }
+
+        List<Suggestion> lookup(String prefix, int limit) {
+            int from = lowerBound(prefix);
+            int to = lowerBound(prefix + Character.MAX_VALUE);
+            if (from >= to) {
+                return List.of();
+            }
+            int[] ranked = to - from > SCAN_LIMIT ? heavyPrefixes.get(prefix) : null;
+            if (ranked == null) {
+                ranked = topK(from, to, limit);
+            }
+            List<Suggestion> suggestions = new ArrayList<>(Math.min(limit, ranked.length));
+            for (int i = 0; i < ranked.length && i < limit; i++) {
+                suggestions.add(new Suggestion(texts[ranked[i]], kinds[ranked[i]]));
+            }
+            return suggestions;
+        }
+
+        private int[] topK(int from, int to, int k) {
+            // heaviest first; ties go to the alphabetically earlier key
+            Comparator<Integer> better = Comparator.<Integer>comparingLong(i -> weights[i]).reversed()
+                    .thenComparingInt(i -> i);
+            PriorityQueue<Integer> heap = new PriorityQueue<>(k + 1, better.reversed());
+            for (int i = from; i < to; i++) {
+                heap.add(i);
+                if (heap.size() > k) {
+                    heap.poll();
+                }
+            }
+            Integer[] best = heap.toArray(new Integer[0]);
+            Arrays.sort(best, better);
+            return Arrays.stream(best).mapToInt(Integer::intValue).toArray();
+        }
+
+        private int lowerBound(String key) {
+            int lo = 0;
+            int hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.pharmacyproject.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Term counts of one text field of one drug: distinct terms in sorted order, how often each occurs,
+ * and the field length in terms. Enough to compute BM25 term frequencies for prefix queries.
+ */
+final class FieldTerms {
+
+    static final FieldTerms EMPTY = new FieldTerms(new String[0], new int[0], 0);
+
+    private final String[] terms;
+    private final int[] counts;
+    private final int length;
+
+    private FieldTerms(String[] terms, int[] counts, int length) {
+        this.terms = terms;
+        this.counts = counts;
+        this.length = length;
+    }
+
+    static FieldTerms of(String text) {
+        List<String> tokens = SearchTokenizer.indexTerms(text);
+        if (tokens.isEmpty()) {
+            return EMPTY;
+        }
+        String[] sorted = tokens.toArray(new String[0]);
+        Arrays.sort(sorted);
+        String[] distinct = new String[sorted.length];
+        int[] counts = new int[sorted.length];
+        int n = 0;
+        for (String token : sorted) {
+            if (n > 0 && distinct[n - 1].equals(token)) {
+                counts[n - 1]++;
+            } else {
+                distinct[n] = token;
+                counts[n++] = 1;
+            }
+        }
+        return new FieldTerms(Arrays.copyOf(distinct, n), Arrays.copyOf(counts, n), sorted.length);
+    }
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * Occurrences of all terms starting with the prefix.
+     */
+    int prefixCount(String prefix) {
+        int idx = Arrays.binarySearch(terms, prefix);
+        int i = idx >= 0 ? idx : -idx - 1;
+        int total = 0;
+        while (i < terms.length && terms[i].startsWith(prefix)) {
+            total += counts[i++];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.pharmacyproject.search;
+
+import java.util.Arrays;
+
+/**
+ * Copy-on-write helpers for sorted drug-id posting arrays.
+ * Arrays handed out to readers are never mutated; every change returns a new array.
+ */
+final class Postings {
+
+    private Postings() {}
+
+    static long[] withId(long[] ids, long id) {
+        if (ids == null) {
+            return new long[] { id };
+        }
+        int idx = Arrays.binarySearch(ids, id);
+        if (idx >= 0) {
+            return ids;
+        }
+        int insertion = -idx - 1;
+        long[] copy = new long[ids.length + 1];
+        System.arraycopy(ids, 0, copy, 0, insertion);
+        copy[insertion] = id;
+        System.arraycopy(ids, insertion, copy, insertion + 1, ids.length - insertion);
+        return copy;
+    }
+
+    /** Returns null when the last id is removed so the key drops out of the map. */
+    static long[] withoutId(long[] ids, long id) {
+        int idx = Arrays.binarySearch(ids, id);
+        if (idx < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        long[] copy = new long[ids.length - 1];
+        System.arraycopy(ids, 0, copy, 0, idx);
+        System.arraycopy(ids, idx + 1, copy, idx, ids.length - idx - 1);
+        return copy;
+    }
+
+    static boolean contains(long[] ids, long id) {
+        return ids != null && Arrays.binarySearch(ids, id) >= 0;
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.pharmacyproject.search;
+
+import org.example.pharmacyproject.dosage.DosageFilter;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times one ranked query on the live index at 1, 2, 4 ... up to all shards of the
+ * {@link ShardedSearchExecutor} pool, to show how a broad query scales with cores on this machine.
+ */
+@Component
+public class SearchBenchmark {
+
+    private static final int WARMUP_RUNS = 3;
+
+    private final DrugSearchIndex drugSearchIndex;
+    private final ShardedSearchExecutor shardedSearch;
+
+    public SearchBenchmark(DrugSearchIndex drugSearchIndex, ShardedSearchExecutor shardedSearch) {
+        this.drugSearchIndex = drugSearchIndex;
+        this.shardedSearch = shardedSearch;
+    }
+
+    /**
+     * Average latency at one shard count; speedup is relative to the single-shard run.
+     */
+    public record Result(int shards, double averageMillis, double speedup) {}
+
+    public List<Result> run(String query, int limit, int iterations) {
+        if (!drugSearchIndex.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Drug search index is still loading, retry shortly");
+        }
+        if (iterations <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "iterations must be positive");
+        }
+        List<Integer> shardCounts = new ArrayList<>();
+        for (int shards = 1; shards < shardedSearch.getParallelism(); shards *= 2) {
+            shardCounts.add(shards);
+        }
+        shardCounts.add(shardedSearch.getParallelism());
+
+        List<Result> results = new ArrayList<>(shardCounts.size());
+        double baseline = 0;
+        for (int shards : shardCounts) {
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                drugSearchIndex.searchRanked(query, DosageFilter.NONE, limit, shards);
+            }
+            long started = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                drugSearchIndex.searchRanked(query, DosageFilter.NONE, limit, shards);
+            }
+            double averageMillis = (System.nanoTime() - started) / 1_000_000.0 / iterations;
+            if (shards == 1) {
+                baseline = averageMillis;
+            }
+            results.add(new Result(shards, averageMillis, averageMillis > 0 ? baseline / averageMillis : 1.0));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.pharmacyproject.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits drug text into lowercase alphanumeric terms.
+ * Shared by every in-memory search structure so that indexing and querying always agree on what a term is.
+ */
+public final class SearchTokenizer {
+
+    /** Filler words from the generated descriptions; indexing them only bloats the postings. */
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "any", "are", "as", "at", "away", "be", "before", "by", "for", "from",
+            "in", "is", "it", "its", "may", "of", "on", "or", "that", "the", "to", "with"
+    );
+
+    private static final int MIN_INDEXED_TERM_LENGTH = 2;
+
+    private SearchTokenizer() {}
+
+    /**
+     * Terms to store in an index: stop words and single characters are dropped.
+     */
+    public static List<String> indexTerms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String term : split(text)) {
+            if (term.length() >= MIN_INDEXED_TERM_LENGTH && !STOP_WORDS.contains(term)) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Distinct terms of a user query, in the order typed.
+     * Stop words are kept because query terms are matched as prefixes ("an" → "analgesic").
+     */
+    public static List<String> queryTerms(String query) {
+        return new ArrayList<>(new LinkedHashSet<>(split(query)));
+    }
+
+    private static List<String> split(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i < lower.length(); i++) {
+            if (Character.isLetterOrDigit(lower.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                terms.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            terms.add(lower.substring(start));
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.pharmacyproject.search;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.IntFunction;
+
+/**
+ * Runs top-k searches over large candidate ranges on a dedicated ForkJoinPool.
+ * <p>
+ * The range is cut into one contiguous shard per worker; each shard keeps its own bounded heap of
+ * the best {@code limit} hits and the shard heaps are merged at the end, so the merge costs
+ * O(shards * limit) regardless of how many items were evaluated. Below {@code min-cost} items the
+ * whole range is evaluated on the calling thread, where forking would cost more than it saves.
+ * The pool is separate from the common pool so a burst of broad queries cannot starve parallel
+ * streams elsewhere in the JVM, and vice versa.
+ */
+@Component
+public class ShardedSearchExecutor {
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final int minCost;
+
+    public ShardedSearchExecutor(@Value("${app.search.parallel.threads:0}") int threads,
+                                 @Value("${app.search.parallel.min-cost:50000}") int minCost) {
+        this.parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.minCost = minCost;
+        this.pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("catalog-search-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @param cost estimated number of items a search will evaluate
+     * @return true when the search is large enough to be split across the pool
+     */
+    public boolean worthSplitting(long cost) {
+        return parallelism > 1 && cost >= minCost;
+    }
+
+    /**
+     * Evaluates items {@code 0..size-1} and returns the best {@code limit} hits, best first.
+     * Splits across the pool when {@link #worthSplitting} says so, otherwise runs inline.
+     *
+     * @param evaluate   maps an item index to a hit, or null when the item does not match; must be thread-safe
+     * @param worstFirst orders hits from worst to best; ties must be broken so the order is total
+     */
+    public <T> List<T> topK(int size, IntFunction<T> evaluate, Comparator<? super T> worstFirst, int limit) {
+        return topK(size, evaluate, worstFirst, limit, worthSplitting(size) ? parallelism : 1);
+    }
+
+    /**
+     * Like {@link #topK(int, IntFunction, Comparator, int)} with an explicit shard count,
+     * capped at the pool size; used to compare shard counts on the same data.
+     */
+    public <T> List<T> topK(int size, IntFunction<T> evaluate, Comparator<? super T> worstFirst, int limit, int shards) {
+        if (limit <= 0 || size <= 0) {
+            return new ArrayList<>();
+        }
+        int shardCount = Math.max(1, Math.min(Math.min(shards, parallelism), size));
+        PriorityQueue<T> merged;
+        if (shardCount == 1) {
+            merged = scan(0, size, evaluate, worstFirst, limit);
+        } else {
+            List<ForkJoinTask<PriorityQueue<T>>> tasks = new ArrayList<>(shardCount);
+            for (int shard = 0; shard < shardCount; shard++) {
+                int from = (int) ((long) size * shard / shardCount);
+                int to = (int) ((long) size * (shard + 1) / shardCount);
+                tasks.add(pool.submit(() -> scan(from, to, evaluate, worstFirst, limit)));
+            }
+            merged = new PriorityQueue<>(limit + 1, worstFirst);
+            for (ForkJoinTask<PriorityQueue<T>> task : tasks) {
+                for (T hit : task.join()) {
+                    offer(merged, hit, worstFirst, limit);
+                }
+            }
+        }
+        List<T> ranked = new ArrayList<>(merged);
+        ranked.sort(worstFirst.reversed());
+        return ranked;
+    }
+
+    private static <T> PriorityQueue<T> scan(int from, int to, IntFunction<T> evaluate,
+                                             Comparator<? super T> worstFirst, int limit) {
+        PriorityQueue<T> top = new PriorityQueue<>(limit + 1, worstFirst);
+        for (int i = from; i < to; i++) {
+            T hit = evaluate.apply(i);
+            if (hit != null) {
+                offer(top, hit, worstFirst, limit);
+            }
+        }
+        return top;
+    }
+
+    private static <T> void offer(PriorityQueue<T> top, T hit, Comparator<? super T> worstFirst, int limit) {
+        if (top.size() < limit) {
+            top.add(hit);
+        } else if (worstFirst.compare(hit, top.peek()) > 0) {
+            top.poll();
+            top.add(hit);
+        }
+    }
+}
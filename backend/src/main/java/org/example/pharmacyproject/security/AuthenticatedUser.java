@@ -0,0 +1,83 @@
+package org.example.pharmacyproject.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The authenticated principal: user id, email and authorities.
+ * <p>
+ * Carries the id so controllers can take {@code @AuthenticationPrincipal(expression = "id") Long userId};
+ * {@code expression = "username"} still yields the email. Built from the access token's claims on each
+ * request, or from the database at login, where the password hash is needed once and then erased.
+ */
+public class AuthenticatedUser implements UserDetails, CredentialsContainer {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String email;
+    private String password;
+    private final Set<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long id, String email, String password, Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.authorities = Set.copyOf(authorities);
+    }
+
+    /**
+     * @return the principal asserted by verified access-token claims, or null when the token predates
+     *         the id claim and the user has to be looked up instead
+     */
+    public static AuthenticatedUser fromClaims(Claims claims) {
+        Object id = claims.get(SecurityConstants.CLAIM_USER_ID);
+        Object roles = claims.get(SecurityConstants.CLAIM_ROLES);
+        if (!(id instanceof Number) || !(roles instanceof List<?> roleList) || claims.getSubject() == null) {
+            return null;
+        }
+        Set<GrantedAuthority> authorities = roleList.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString()))
+                .collect(Collectors.toSet());
+        return new AuthenticatedUser(((Number) id).longValue(), claims.getSubject(), null, authorities);
+    }
+
+    /**
+     * @return a copy without the password hash, safe to keep in a cache
+     */
+    public AuthenticatedUser withoutCredentials() {
+        return new AuthenticatedUser(id, email, null, authorities);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+}
@@ -1,29 +1,49 @@
 package org.example.pharmacyproject.security;
 
 import java.io.IOException;
+
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import org.example.pharmacyproject.cache.CredentialsChangeCache;
+import org.example.pharmacyproject.cache.UserPrincipalCache;
 import org.example.pharmacyproject.services.TokenService;
 import org.springframework.stereotype.Component;
 
+/**
+ * Authenticates requests carrying a bearer access token.
+ * <p>
+ * The token is signed, so the principal (user id, email, roles) is built from its claims without a
+ * database round trip. Tokens issued before the id claim existed, or every token when
+ * {@code app.security.jwt.trust-claims=false}, resolve the user through {@link UserPrincipalCache}.
+ * <p>
+ * Either way the token is refused when it was issued before the user's last password change or
+ * reset, or the user no longer exists, as recorded by {@link CredentialsChangeCache}.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final TokenService tokenService;
-    private final CustomUserDetailsService userDetailsService;
+    private final UserPrincipalCache userPrincipalCache;
+    private final CredentialsChangeCache credentialsChanges;
+    private final boolean trustClaims;
 
     public JwtAuthenticationFilter(TokenService tokenService,
-                                   CustomUserDetailsService userDetailsService) {
+                                   UserPrincipalCache userPrincipalCache,
+                                   CredentialsChangeCache credentialsChanges,
+                                   @Value("${app.security.jwt.trust-claims:true}") boolean trustClaims) {
         this.tokenService = tokenService;
-        this.userDetailsService = userDetailsService;
+        this.userPrincipalCache = userPrincipalCache;
+        this.credentialsChanges = credentialsChanges;
+        this.trustClaims = trustClaims;
     }
 
     @Override
@@ -31,23 +51,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     HttpServletResponse response,
                                     FilterChain filterChain)
             throws ServletException, IOException {
-        String header = request.getHeader("Authorization");
-        if (header != null && header.startsWith("Bearer ")) {
-            String token = header.substring(7);
-            if (tokenService.validateAccessToken(token)) {
-                String username = tokenService.getUsernameFromToken(token);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authentication.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+        String header = request.getHeader(SecurityConstants.HEADER_STRING);
+        if (header != null && header.startsWith(SecurityConstants.TOKEN_PREFIX)) {
+            String token = header.substring(SecurityConstants.TOKEN_PREFIX.length());
+            Claims claims = tokenService.verifyAccessToken(token);
+            if (claims != null) {
+                AuthenticatedUser principal = trustClaims ? AuthenticatedUser.fromClaims(claims) : null;
+                if (principal == null) {
+                    principal = userPrincipalCache.findByEmail(claims.getSubject());
+                }
+                // claims stay valid after a password change or deletion, so check for revocation
+                if (principal != null && credentialsChanges.isRevoked(principal.getId(), claims.getIssuedAt())) {
+                    principal = null;
+                }
+                if (principal != null) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            principal,
+                            null,
+                            principal.getAuthorities()
+                    );
+                    authentication.setDetails(
+                            new WebAuthenticationDetailsSource().buildDetails(request)
+                    );
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
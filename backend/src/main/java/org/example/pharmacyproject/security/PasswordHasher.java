@@ -0,0 +1,149 @@
+package org.example.pharmacyproject.security;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt hashing and checking on a small dedicated pool instead of the request threads.
+ * <p>
+ * The pool has {@code app.security.password.threads} threads and a queue of
+ * {@code queue-capacity}; when both are full a call fails at once with 503 rather than queueing
+ * behind a login burst, so cheap endpoints keep their Tomcat workers. A caller waits at most
+ * {@code timeout-ms} for its hash. BCrypt never checks for interrupts, so a hash that times out is
+ * not stopped: a task still in the queue is skipped, but a running one keeps its pool thread
+ * until it finishes. The pool size is therefore the hard cap on concurrent BCrypt work, and a
+ * timeout frees the caller, not the core.
+ * <p>
+ * With {@code bcrypt-cost=0} the cost is calibrated at startup so one hash takes about
+ * {@code target-ms} on this machine, never below the previous fixed cost of {@value #MIN_COST}.
+ * Hashes made at a lower cost are upgraded on the next successful login, see {@link #needsRehash}.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private static final int MIN_COST = 10;
+    private static final int MAX_COST = 16;
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final int configuredCost;
+    private final long targetMs;
+
+    private volatile BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(MIN_COST);
+
+    public PasswordHasher(@Value("${app.security.password.threads:0}") int threads,
+                          @Value("${app.security.password.queue-capacity:64}") int queueCapacity,
+                          @Value("${app.security.password.timeout-ms:5000}") long timeoutMs,
+                          @Value("${app.security.password.bcrypt-cost:0}") int cost,
+                          @Value("${app.security.password.target-ms:250}") long targetMs) {
+        if (cost != 0 && (cost < 4 || cost > 31)) {
+            throw new IllegalArgumentException("app.security.password.bcrypt-cost must be 0 or between 4 and 31");
+        }
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMs = timeoutMs;
+        this.configuredCost = cost;
+        this.targetMs = targetMs;
+        if (cost != 0) {
+            encoder = new BCryptPasswordEncoder(cost);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Picks the cost for {@code target-ms} unless one is configured. Run by StartupWarmup; until then
+     * hashes use cost {@value #MIN_COST}.
+     */
+    public void calibrate() {
+        if (configuredCost != 0) {
+            return;
+        }
+        new BCryptPasswordEncoder(4).encode("warm-up");
+        long best = Long.MAX_VALUE;
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_COST);
+        for (int i = 0; i < 3; i++) {
+            long started = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - started);
+        }
+        // each cost step doubles the work
+        double steps = Math.log((double) targetMs * 1_000_000 / best) / Math.log(2);
+        int cost = Math.max(MIN_COST, Math.min(MAX_COST, MIN_COST + (int) Math.round(steps)));
+        encoder = new BCryptPasswordEncoder(cost);
+        log.info("BCrypt cost {} chosen: cost {} takes {} ms here, target {} ms",
+                cost, MIN_COST, best / 1_000_000, targetMs);
+    }
+
+    public String hash(CharSequence rawPassword) {
+        BCryptPasswordEncoder current = encoder;
+        return run(() -> current.encode(rawPassword));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        // checking runs at the cost stored in the hash, whatever the current one
+        BCryptPasswordEncoder current = encoder;
+        return run(() -> current.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * @return true when the hash was made at a lower cost than the current one
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return encodedPassword != null && encoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many password operations, retry shortly");
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // a task still queued is skipped when its turn comes; a running hash ignores the interrupt and completes
+            future.cancel(true);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Password operation timed out, retry shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
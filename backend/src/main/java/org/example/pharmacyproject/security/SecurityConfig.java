@@ -1,7 +1,6 @@
 package org.example.pharmacyproject.security;
 
 
-import org.example.pharmacyproject.services.TokenService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -19,19 +18,17 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableMethodSecurity
 public class SecurityConfig {
 
-    private final TokenService tokenService;
+    private final JwtAuthenticationFilter jwtFilter;
     private final CustomUserDetailsService userDetailsService;
 
-    public SecurityConfig(TokenService tokenService,
+    public SecurityConfig(JwtAuthenticationFilter jwtFilter,
                           CustomUserDetailsService userDetailsService) {
-        this.tokenService = tokenService;
+        this.jwtFilter = jwtFilter;
         this.userDetailsService = userDetailsService;
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(tokenService, userDetailsService);
-
         http
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -39,7 +36,8 @@ public class SecurityConfig {
                         .requestMatchers(
                                 "/api/auth/**",
                                 "/api/password/**",
-                                "/api/public/**"  // Allow unauthenticated access to all public endpoints
+                                "/api/public/**",  // Allow unauthenticated access to all public endpoints
+                                "/api/ready"       // readiness probe
                         ).permitAll()
                         .anyRequest().authenticated()
                 )
@@ -5,6 +5,9 @@ public final class SecurityConstants {
 
     public static final String HEADER_STRING = "Authorization";
     public static final String TOKEN_PREFIX = "Bearer ";
+    // access token claims the request principal is built from
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
     public static final String[] PUBLIC_URLS = {
             "/api/auth/**",
             "/api/password/**"
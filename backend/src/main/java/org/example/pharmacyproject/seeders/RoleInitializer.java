@@ -14,6 +14,10 @@ public class RoleInitializer {
         this.roleRepo = roleRepo;
     }
 
+    /**
+     * Runs before the port opens: registration needs ROLE_USER from the first request on, and the
+     * two lookups are too cheap to be worth deferring to the startup warm-up.
+     */
     @PostConstruct
     public void seedRoles() {
         if (roleRepo.findByName("ROLE_USER").isEmpty()) {
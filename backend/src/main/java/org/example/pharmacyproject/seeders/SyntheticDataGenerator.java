@@ -0,0 +1,401 @@
+package org.example.pharmacyproject.seeders;
+
+import org.example.pharmacyproject.dosage.DosageParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills the database with a synthetic load-testing dataset of drugs, users and prescriptions,
+ * then exits. Only active under the {@code datagen} profile, so it never runs on a normal boot:
+ * <pre>
+ * java -jar app.jar --spring.profiles.active=datagen --app.datagen.drugs=5000000 \
+ *      --app.datagen.users=500000 --app.datagen.prescriptions=10000000
+ * </pre>
+ * Every row is derived from {@code app.datagen.seed} and its own index alone, so the same seed and
+ * counts produce the same data whatever the thread count or batch size. Ids continue after the
+ * current maximum, which keeps a second run from colliding with the first.
+ * <p>
+ * Popularity is skewed the way real catalogs are: a few manufacturers and drug types cover most of
+ * the catalog, and a small share of drugs and users account for most prescriptions.
+ * Rows go through batched JDBC, one transaction per batch, on {@code app.datagen.threads} threads.
+ */
+@Component
+@Profile("datagen")
+public class SyntheticDataGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private static final long PROGRESS_LOG_INTERVAL = 100_000;
+
+    // independent random streams, so e.g. a drug's description never shifts its dosage
+    private static final long DRUG_STREAM = 1;
+    private static final long DESCRIPTION_STREAM = 2;
+    private static final long USER_STREAM = 3;
+    private static final long PRESCRIPTION_STREAM = 4;
+
+    // power-law exponents: index = n * u^k puts most draws near index 0 for k > 1
+    private static final double MANUFACTURER_SKEW = 3.0;
+    private static final double TYPE_SKEW = 2.0;
+    private static final double DRUG_POPULARITY_SKEW = 4.0;
+    private static final double USER_ACTIVITY_SKEW = 2.5;
+
+    private static final LocalDate EPOCH = LocalDate.of(2020, 1, 1);
+
+    private static final String DRUG_SQL =
+            "INSERT INTO drugs (id, name, type, manufacturer, dosage, description, prescription_required, " +
+            "strength_value, strength_unit, dosage_form, dosage_frequency) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String USER_SQL =
+            "INSERT INTO users (id, email, password, address, phone_number, payment_method, role_id, " +
+            "registered_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String PRESCRIPTION_SQL =
+            "INSERT INTO prescriptions (user_id, drug_id, dosage, frequency, status, refills_remaining, " +
+            "last_refill, next_refill, prescription_required, issued_at, expires_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String[] NAME_PREFIXES = {
+            "Neo", "Levo", "Oxy", "Hydro", "Dex", "Pan", "Ami", "Medi", "Vir", "Zol",
+            "Flu", "Cef", "Nor", "Sil", "Rami", "Lisi", "Ator", "Sim", "Acet", "Para",
+            "Ibup", "Aspi", "Diclo", "Meth", "Pred", "Amit", "Sertr", "Fluox", "Escit", "Venlaf"
+    };
+    private static final String[] NAME_SUFFIXES = {
+            "ol", "in", "um", "an", "ate", "ine", "one", "ide", "amide", "amine",
+            "azole", "cillin", "mycin", "oxacin", "pril", "sartan", "statin", "vir", "pam", "lone",
+            "profen", "rin", "fenac", "formin", "sone", "tyline", "aline", "etine", "pram", "axine"
+    };
+    private static final String[] TYPES = {
+            "Analgesic", "Antibiotic", "Antidepressant", "Antiviral", "Antihistamine",
+            "Anti-inflammatory", "Antipsychotic", "Antifungal", "Beta Blocker", "Bronchodilator",
+            "Calcium Channel Blocker", "Contraceptive", "Corticosteroid", "Decongestant", "Diuretic",
+            "Hormone", "Immunosuppressant", "Muscle Relaxant", "Sedative", "Statin",
+            "Vaccine", "Vitamin", "ACE Inhibitor", "Anticonvulsant", "Anticoagulant"
+    };
+    // the big names come first so the skew favours them; the generated tail follows
+    private static final String[] MAJOR_MANUFACTURERS = {
+            "Pfizer", "Novartis", "Roche", "Merck", "Johnson & Johnson",
+            "AstraZeneca", "GlaxoSmithKline", "Sanofi", "Eli Lilly", "AbbVie",
+            "Bristol-Myers Squibb", "Bayer", "Boehringer Ingelheim", "Amgen", "Gilead Sciences",
+            "Novo Nordisk", "Takeda", "Biogen", "Teva", "Astellas"
+    };
+    private static final String[] GENERIC_MAKER_WORDS = {
+            "Apex", "Baltic", "Cedar", "Delta", "Evergreen", "Falcon", "Granite", "Harbor", "Iris", "Juniper",
+            "Krone", "Lumen", "Meridian", "Nova", "Orion", "Polar", "Quantum", "River", "Summit", "Vistula"
+    };
+    private static final String[] GENERIC_MAKER_KINDS = {"Pharma", "Labs", "Generics", "Healthcare", "Therapeutics"};
+    private static final String[] MANUFACTURERS = manufacturers();
+
+    private static final String[] STRENGTHS = {"5", "10", "15", "20", "25", "50", "75", "100", "150", "200", "250", "500", "1000"};
+    private static final String[] UNITS = {"mg", "mcg", "g", "mL", "IU"};
+    private static final String[] FORMS = {"tablet", "capsule", "injection", "solution", "suspension", "cream", "ointment", "patch", "powder", "suppository"};
+    private static final String[] FREQUENCIES = {"once daily", "twice daily", "three times daily", "four times daily", "every 4 hours", "every 6 hours", "every 8 hours", "every 12 hours", "as needed"};
+    private static final String[] ACTIONS = {
+            "treats", "helps manage", "prevents", "reduces symptoms of", "is effective against",
+            "alleviates", "is prescribed for", "is indicated for", "provides relief from", "controls"
+    };
+    private static final String[] CONDITIONS = {
+            "pain", "inflammation", "bacterial infections", "viral infections", "hypertension",
+            "diabetes", "asthma", "depression", "anxiety", "allergies",
+            "heart disease", "cancer", "arthritis", "osteoporosis", "Alzheimer's disease",
+            "Parkinson's disease", "epilepsy", "multiple sclerosis", "HIV/AIDS", "tuberculosis"
+    };
+    private static final String[] SIDE_EFFECTS = {
+            "nausea", "headache", "dizziness", "drowsiness", "fatigue",
+            "dry mouth", "constipation", "diarrhea", "insomnia", "skin rash",
+            "increased heart rate", "decreased appetite", "blurred vision", "sweating", "tremor"
+    };
+    private static final String[] STREETS = {
+            "Main St", "Oak Ave", "Pine Rd", "Maple Dr", "Cedar Ln", "Elm St", "Lake Rd", "Hill St", "Park Ave", "River Rd"
+    };
+    private static final String[] CITIES = {
+            "Wroclaw", "Warsaw", "Krakow", "Gdansk", "Poznan", "Lodz", "Szczecin", "Lublin", "Katowice", "Opole"
+    };
+    private static final String[] PAYMENT_METHODS = {"CARD", "BLIK", "TRANSFER", "CASH"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ConfigurableApplicationContext context;
+    private final long seed;
+    private final long drugCount;
+    private final long userCount;
+    private final long prescriptionCount;
+    private final int threads;
+    private final int batchSize;
+    private final String userPassword;
+
+    /** One drug's attributes apart from its description, which comes from its own stream. */
+    private record DrugCore(String name, String type, String manufacturer, String strength, String unit,
+                            String form, String frequency, boolean prescriptionRequired) {
+        String dosage() {
+            return strength + " " + unit + ", " + form + ", " + frequency;
+        }
+    }
+
+    /**
+     * Fixed for the whole run: ids continue after {@code drugBase} / {@code userBase} as
+     * {@code base + index + 1}, and every generated account shares one password hash, since hashing
+     * per user would dominate the run.
+     */
+    private record Run(long drugBase, long userBase, long userRoleId, String passwordHash) {}
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  PasswordEncoder passwordEncoder,
+                                  ConfigurableApplicationContext context,
+                                  @Value("${app.datagen.seed:42}") long seed,
+                                  @Value("${app.datagen.drugs:100000}") long drugCount,
+                                  @Value("${app.datagen.users:10000}") long userCount,
+                                  @Value("${app.datagen.prescriptions:200000}") long prescriptionCount,
+                                  @Value("${app.datagen.threads:0}") int threads,
+                                  @Value("${app.datagen.batch-size:1000}") int batchSize,
+                                  @Value("${app.datagen.user-password:password}") String userPassword) {
+        if (drugCount < 0 || userCount < 0 || prescriptionCount < 0) {
+            throw new IllegalArgumentException("app.datagen counts must not be negative");
+        }
+        if (prescriptionCount > 0 && (drugCount == 0 || userCount == 0)) {
+            // prescriptions only reference drugs and users generated by this run
+            throw new IllegalArgumentException("app.datagen.prescriptions > 0 needs app.datagen.drugs > 0 and app.datagen.users > 0");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("app.datagen.batch-size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.context = context;
+        this.seed = seed;
+        this.drugCount = drugCount;
+        this.userCount = userCount;
+        this.prescriptionCount = prescriptionCount;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.batchSize = batchSize;
+        this.userPassword = userPassword;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long started = System.currentTimeMillis();
+        Run run = new Run(maxId("drugs"), maxId("users"),
+                jdbcTemplate.queryForObject("SELECT id FROM roles WHERE name = 'ROLE_USER'", Long.class),
+                passwordEncoder.encode(userPassword));
+        log.info("Generating {} drugs, {} users and {} prescriptions from seed {} on {} threads",
+                drugCount, userCount, prescriptionCount, seed, threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> new Thread(runnable, "datagen-writer"));
+        try {
+            // prescriptions reference the new drugs and users, so those are written first
+            generate(executor, "drugs", drugCount, (from, to) -> writeDrugs(from, to, run));
+            generate(executor, "users", userCount, (from, to) -> writeUsers(from, to, run));
+            generate(executor, "prescriptions", prescriptionCount, (from, to) -> writePrescriptions(from, to, run));
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Synthetic data generated in {} ms", System.currentTimeMillis() - started);
+        // a one-off command: leave instead of starting to serve
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+
+    private interface BatchWriter {
+        void write(long from, long to);
+    }
+
+    private void generate(ExecutorService executor, String table, long count, BatchWriter writer)
+            throws InterruptedException {
+        if (count == 0) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        AtomicLong written = new AtomicLong();
+        List<Future<?>> batches = new ArrayList<>();
+        for (long from = 0; from < count; from += batchSize) {
+            long batchFrom = from;
+            long batchTo = Math.min(count, from + batchSize);
+            batches.add(executor.submit(() -> {
+                writer.write(batchFrom, batchTo);
+                long total = written.addAndGet(batchTo - batchFrom);
+                if (total / PROGRESS_LOG_INTERVAL != (total - (batchTo - batchFrom)) / PROGRESS_LOG_INTERVAL) {
+                    log.info("Generated {} of {} {}", total, count, table);
+                }
+            }));
+        }
+        try {
+            for (Future<?> batch : batches) {
+                batch.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Generating " + table + " failed", e.getCause());
+        }
+        long duration = Math.max(1, System.currentTimeMillis() - started);
+        log.info("Generated {} {} in {} ms ({} rows/s)", count, table, duration, count * 1000 / duration);
+    }
+
+    private void writeDrugs(long from, long to, Run run) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(DRUG_SQL, indexes(from, to), batchSize, (ps, index) -> {
+                    DrugCore drug = drugCore(index);
+                    String dosage = drug.dosage();
+                    DosageParser.ParsedDosage parsed = DosageParser.parse(dosage);
+                    ps.setLong(1, run.drugBase() + index + 1);
+                    ps.setString(2, drug.name());
+                    ps.setString(3, drug.type());
+                    ps.setString(4, drug.manufacturer());
+                    ps.setString(5, dosage);
+                    ps.setString(6, description(index, drug));
+                    ps.setBoolean(7, drug.prescriptionRequired());
+                    if (parsed.strength() == null) {
+                        ps.setNull(8, Types.DOUBLE);
+                    } else {
+                        ps.setDouble(8, parsed.strength());
+                    }
+                    ps.setString(9, parsed.unit());
+                    ps.setString(10, parsed.form());
+                    ps.setString(11, parsed.frequency());
+                }));
+    }
+
+    private void writeUsers(long from, long to, Run run) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(USER_SQL, indexes(from, to), batchSize, (ps, index) -> {
+                    SplittableRandom random = random(USER_STREAM, index);
+                    long id = run.userBase() + index + 1;
+                    LocalDateTime registered = EPOCH.atStartOfDay().plusMinutes(random.nextLong(5L * 365 * 24 * 60));
+                    ps.setLong(1, id);
+                    ps.setString(2, "user" + id + "@example.test");
+                    ps.setString(3, run.passwordHash());
+                    ps.setString(4, (1 + random.nextInt(200)) + " " + pick(random, STREETS) + ", " + pick(random, CITIES));
+                    ps.setString(5, "+48" + (500_000_000 + random.nextInt(300_000_000)));
+                    ps.setString(6, PAYMENT_METHODS[skewed(random, PAYMENT_METHODS.length, 1.5)]);
+                    ps.setLong(7, run.userRoleId());
+                    ps.setTimestamp(8, Timestamp.valueOf(registered));
+                    ps.setTimestamp(9, Timestamp.valueOf(registered.plusDays(random.nextInt(365))));
+                }));
+    }
+
+    private void writePrescriptions(long from, long to, Run run) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(PRESCRIPTION_SQL, indexes(from, to), batchSize, (ps, index) -> {
+                    SplittableRandom random = random(PRESCRIPTION_STREAM, index);
+                    long drugIndex = skewed(random, drugCount, DRUG_POPULARITY_SKEW);
+                    long userIndex = skewed(random, userCount, USER_ACTIVITY_SKEW);
+                    DrugCore drug = drugCore(drugIndex);
+                    LocalDateTime issued = EPOCH.atStartOfDay().plusMinutes(random.nextLong(5L * 365 * 24 * 60));
+                    LocalDateTime expires = issued.plusDays(30 + random.nextInt(335));
+                    boolean active = random.nextInt(10) < 3;
+                    LocalDate lastRefill = issued.toLocalDate().plusDays(random.nextInt(30));
+                    ps.setLong(1, run.userBase() + userIndex + 1);
+                    ps.setLong(2, run.drugBase() + drugIndex + 1);
+                    ps.setString(3, drug.strength() + drug.unit());
+                    ps.setString(4, drug.frequency());
+                    ps.setString(5, active ? "ACTIVE" : "EXPIRED");
+                    ps.setInt(6, active ? random.nextInt(6) : 0);
+                    ps.setDate(7, Date.valueOf(lastRefill));
+                    ps.setDate(8, Date.valueOf(lastRefill.plusDays(30)));
+                    ps.setBoolean(9, drug.prescriptionRequired());
+                    ps.setTimestamp(10, Timestamp.valueOf(issued));
+                    ps.setTimestamp(11, Timestamp.valueOf(expires));
+                }));
+    }
+
+    private DrugCore drugCore(long index) {
+        SplittableRandom random = random(DRUG_STREAM, index);
+        String name = pick(random, NAME_PREFIXES) + pick(random, NAME_SUFFIXES)
+                + (random.nextBoolean() ? String.valueOf(random.nextInt(100) + 1) : "");
+        return new DrugCore(
+                name,
+                TYPES[skewed(random, TYPES.length, TYPE_SKEW)],
+                MANUFACTURERS[skewed(random, MANUFACTURERS.length, MANUFACTURER_SKEW)],
+                pick(random, STRENGTHS),
+                pick(random, UNITS),
+                pick(random, FORMS),
+                pick(random, FREQUENCIES),
+                random.nextInt(10) < 4);
+    }
+
+    private String description(long index, DrugCore drug) {
+        SplittableRandom random = random(DESCRIPTION_STREAM, index);
+        int first = random.nextInt(SIDE_EFFECTS.length);
+        int second = (first + 1 + random.nextInt(SIDE_EFFECTS.length - 1)) % SIDE_EFFECTS.length;
+        return String.format(
+                "%s is a %s that %s %s. It works by targeting specific receptors in the body to provide therapeutic effects. " +
+                "Common side effects may include %s and %s. Always consult with a healthcare provider before starting any new medication. " +
+                "Store at room temperature away from moisture and heat.",
+                drug.name(), drug.type().toLowerCase(), pick(random, ACTIONS), pick(random, CONDITIONS),
+                SIDE_EFFECTS[first], SIDE_EFFECTS[second]);
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    /**
+     * A generator for one row of one stream, seeded from the run seed, the stream and the row index
+     * only, which is what keeps the output independent of how rows are split across threads.
+     */
+    private SplittableRandom random(long stream, long index) {
+        return new SplittableRandom(mix64(seed + mix64(stream * 0x9E3779B97F4A7C15L + index)));
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Index in {@code [0, n)} with density falling off as a power law from 0. */
+    private static int skewed(SplittableRandom random, int n, double exponent) {
+        return (int) skewed(random, (long) n, exponent);
+    }
+
+    private static long skewed(SplittableRandom random, long n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Cannot pick from an empty range");
+        }
+        return Math.min(n - 1, (long) (n * Math.pow(random.nextDouble(), exponent)));
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static List<Long> indexes(long from, long to) {
+        List<Long> indexes = new ArrayList<>((int) (to - from));
+        for (long i = from; i < to; i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+
+    private static String[] manufacturers() {
+        List<String> names = new ArrayList<>(List.of(MAJOR_MANUFACTURERS));
+        for (String kind : GENERIC_MAKER_KINDS) {
+            for (String word : GENERIC_MAKER_WORDS) {
+                names.add(word + " " + kind);
+            }
+        }
+        return names.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.pharmacyproject.services;
+
+import org.example.pharmacyproject.dtos.drugs.DrugImportResultDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface DrugImportService {
+
+    enum Format {
+        CSV,
+        NDJSON
+    }
+
+    /**
+     * Stream drugs from a CSV or NDJSON file into the database in committed batches.
+     * Rows carrying an existing id update that drug; all others are inserted, so importing an
+     * id-less file twice duplicates its drugs.
+     * Batches commit independently: if the import fails part way, the batches before the failure stay.
+     * Invalid rows are skipped and reported with their line number.
+     *
+     * @param input  the file contents; not closed
+     * @param format how the input is encoded
+     * @return counts plus the first per-line errors
+     */
+    DrugImportResultDTO importDrugs(InputStream input, Format format) throws IOException;
+}
@@ -1,15 +1,23 @@
 package org.example.pharmacyproject.services;
 
+import org.example.pharmacyproject.dtos.drugs.DrugBatchDTO;
+import org.example.pharmacyproject.dtos.drugs.DrugChangesDTO;
 import org.example.pharmacyproject.dtos.drugs.DrugDTO;
+import org.example.pharmacyproject.dtos.drugs.DrugListRequestDTO;
+import org.example.pharmacyproject.dtos.drugs.DrugSummaryDTO;
+import org.example.pharmacyproject.dtos.pagination.CursorPageDTO;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 
 public interface DrugService {
     /**
-     * Retrieve all drugs.
-     * @return a list of DrugDto
+     * Retrieve one keyset page of drugs, ordered by id.
+     * @param request cursor, page size, direction and optional filters
+     * @return the page plus the cursor for the next one
      */
-    List<DrugDTO> listAll();
+    CursorPageDTO<DrugSummaryDTO> listPage(DrugListRequestDTO request);
 
     /**
      * Retrieve a single drug by its ID.
@@ -17,6 +25,27 @@ public interface DrugService {
      * @return the corresponding DrugDto
      */
     DrugDTO getById(Long id);
-}
 
+    /**
+     * Retrieve many drugs in one call; unknown ids are reported rather than failing the request.
+     * @param ids drug ids, duplicates ignored
+     * @return the drugs found in request order, plus the ids that do not exist
+     */
+    DrugBatchDTO getByIds(Collection<Long> ids);
+
+    /**
+     * Drugs upserted or deleted after a catalog version.
+     * @param since version from the client's previous sync
+     * @return the changes and the new version, or a full-resync flag when they can no longer be listed
+     */
+    DrugChangesDTO changesSince(long since);
+
+    /**
+     * Write every drug with an id greater than {@code afterId} to the stream as
+     * newline-delimited JSON, in id order, without holding the catalog in memory.
+     * @param afterId last id the client already has (0 for a full export)
+     * @param out destination; flushed but not closed
+     */
+    void exportNdjson(long afterId, OutputStream out) throws IOException;
+}
 
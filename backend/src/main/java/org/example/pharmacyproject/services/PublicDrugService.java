@@ -1,6 +1,11 @@
 package org.example.pharmacyproject.services;
 
+import org.example.pharmacyproject.commonTypes.SearchMode;
+import org.example.pharmacyproject.dosage.DosageFilter;
 import org.example.pharmacyproject.dtos.drugs.DrugDTO;
+import org.example.pharmacyproject.dtos.drugs.DrugSuggestionDTO;
+import org.example.pharmacyproject.dtos.drugs.DrugSummaryDTO;
+import org.example.pharmacyproject.dtos.drugs.FacetedSearchResultDTO;
 
 import java.util.List;
 
@@ -11,19 +16,50 @@ import java.util.List;
 public interface PublicDrugService {
 
     /**
-     * List public drugs with limited information.
+     * List public drugs as list-card summaries (no dosage or description).
      *
-     * @return a list of DrugDTOs with limited information
+     * @return a list of DrugSummaryDTOs
      */
-    List<DrugDTO> listPublicDrugs();
+    List<DrugSummaryDTO> listPublicDrugs();
 
     /**
      * Search public drugs by name, manufacturer, or description.
      *
      * @param query the search query
-     * @return a list of matching DrugDTOs with limited information
+     * @param mode    keyword matching, or fuzzy (typo-tolerant) matching on the drug name
+     * @param explain whether to include each result's relevance score (keyword mode only)
+     * @param dosage  strength range, unit and form constraints; {@link DosageFilter#NONE} for none
+     * @param page    zero-based page of results; a full page means there may be another one
+     * @return a list of matching DrugDTOs with limited information, most relevant first
      */
-    List<DrugDTO> searchPublicDrugs(String query);
+    List<DrugDTO> searchPublicDrugs(String query, SearchMode mode, boolean explain, DosageFilter dosage, int page);
+
+    /**
+     * Whether a non-blank {@code mode} search is answered by its own index yet. While the indexes load,
+     * searches fall back to a scan that orders by id and carries no scores.
+     */
+    boolean isSearchReady(SearchMode mode);
+
+    /**
+     * Keyword search narrowed by facet filters, with per-facet counts of the matches. Each facet is
+     * counted under every filter except its own, so the other values of a chosen facet keep their counts.
+     *
+     * @param query                optional keyword query; blank means the whole catalog
+     * @param type                 optional exact drug type
+     * @param manufacturer         optional exact manufacturer
+     * @param prescriptionRequired optional Rx flag
+     * @return matching drugs with limited information plus facet counts
+     */
+    FacetedSearchResultDTO facetedSearch(String query, String type, String manufacturer, Boolean prescriptionRequired);
+
+    /**
+     * Autocomplete drug names and manufacturers starting with the given prefix.
+     *
+     * @param prefix what the user has typed so far
+     * @param limit  maximum number of suggestions
+     * @return suggestions, most popular first
+     */
+    List<DrugSuggestionDTO> suggest(String prefix, int limit);
 
     /**
      * Get a single public drug by ID with limited information.
@@ -18,6 +18,17 @@ public interface TokenService {
      */
     RefreshToken createRefreshToken(User user);
 
+    /**
+     * @return how long a newly generated access token stays valid, in milliseconds
+     */
+    long getAccessTokenValidityMs();
+
+    /**
+     * Verifies signature and expiration once and returns the claims.
+     * @return the claims, or null when the token is invalid, tampered with or expired
+     */
+    Claims verifyAccessToken(String token);
+
     /**
      * Validates the integrity and expiration of an access token.
      */
@@ -25,6 +36,7 @@ public interface TokenService {
 
     /**
      * Parses and returns all claims from a valid token.
+     * @throws io.jsonwebtoken.JwtException if the token is not valid
      */
     Claims getClaimsFromToken(String token);
 
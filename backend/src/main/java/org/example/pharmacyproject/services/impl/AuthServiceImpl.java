@@ -1,5 +1,6 @@
 package org.example.pharmacyproject.services.impl;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -17,18 +18,21 @@ import org.example.pharmacyproject.entities.Role;
 import org.example.pharmacyproject.entities.User;
 import org.example.pharmacyproject.entities.tokens.PasswordResetToken;
 import org.example.pharmacyproject.entities.tokens.RefreshToken;
+import org.example.pharmacyproject.events.UserChangedEvent;
 import org.example.pharmacyproject.repositories.PasswordResetTokenRepository;
 import org.example.pharmacyproject.repositories.RefreshTokenRepository;
 import org.example.pharmacyproject.repositories.UserRepository;
+import org.example.pharmacyproject.security.PasswordHasher;
 import org.example.pharmacyproject.services.AuthService;
 import org.example.pharmacyproject.services.RoleService;
 import org.example.pharmacyproject.services.TokenService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mail.MailException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 
 @Service
@@ -38,42 +42,56 @@ public class AuthServiceImpl implements AuthService {
     private final String frontEndUrl;
     private final UserRepository userRepository;
     private final RoleService roleService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final TokenService tokenService;
     private final RefreshTokenRepository refreshTokenRepository;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
 
     public AuthServiceImpl(JavaMailSender mailSender, @Value("${app.frontend.url}") String frontEndUrl, UserRepository userRepository,
                            RoleService roleService,
-                           PasswordEncoder passwordEncoder,
+                           PasswordHasher passwordHasher,
                            TokenService tokenService,
                            RefreshTokenRepository refreshTokenRepository,
-                           PasswordResetTokenRepository passwordResetTokenRepository) {
+                           PasswordResetTokenRepository passwordResetTokenRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           TransactionTemplate transactionTemplate) {
         this.mailSender = mailSender;
         this.frontEndUrl = frontEndUrl;
         this.userRepository = userRepository;
         this.roleService = roleService;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.tokenService = tokenService;
         this.refreshTokenRepository = refreshTokenRepository;
         this.passwordResetTokenRepository = passwordResetTokenRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
     }
 
+    // Like login, not @Transactional as a whole: the new password is hashed before the write
+    // transaction opens, so a request queued on the hashing pool holds no database connection.
     @Override
-    @Transactional
     public RegistrationResponseDTO register(RegistrationRequestDTO request) {
+        // checked up front so a taken email costs no hash, and again in the write transaction
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new IllegalArgumentException("Email already in use");
         }
-        Role defaultRole = roleService.findByName("ROLE_USER");
-        User user = new User();
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setRole(defaultRole);
-        user.setRegisteredAt(LocalDateTime.now());
-        user.setUpdatedAt(LocalDateTime.now());
-        User saved = userRepository.save(user);
+        String passwordHash = passwordHasher.hash(request.getPassword());
+        User saved = transactionTemplate.execute(status -> {
+            if (userRepository.existsByEmail(request.getEmail())) {
+                throw new IllegalArgumentException("Email already in use");
+            }
+            Role defaultRole = roleService.findByName("ROLE_USER");
+            User user = new User();
+            user.setEmail(request.getEmail());
+            user.setPassword(passwordHash);
+            user.setRole(defaultRole);
+            user.setRegisteredAt(LocalDateTime.now());
+            user.setUpdatedAt(LocalDateTime.now());
+            return userRepository.save(user);
+        });
         return new RegistrationResponseDTO(
                 saved.getId(),
                 saved.getEmail(),
@@ -82,18 +100,25 @@ public class AuthServiceImpl implements AuthService {
         );
     }
 
+    // Deliberately not @Transactional: the BCrypt check may queue on the hashing pool and must not hold
+    // a database connection meanwhile. Each repository call below is its own short transaction.
     @Override
-    @Transactional
     public LoginResponseDTO login(LoginRequestDTO request) {
         User user = userRepository.findByEmail(request.getEmail());
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (user == null || !passwordHasher.matches(request.getPassword(), user.getPassword())) {
             throw new IllegalArgumentException("Invalid credentials");
         }
+        // the plain password is only ever at hand here, so bring an old hash up to the current cost now
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            String rehashed = passwordHasher.hash(request.getPassword());
+            if (userRepository.updatePasswordIfUnchanged(user.getId(), user.getPassword(), rehashed) == 1) {
+                user.setPassword(rehashed);
+            }
+        }
         String accessToken = tokenService.generateAccessToken(user);
         RefreshToken refreshToken = tokenService.createRefreshToken(user);
         LocalDateTime issuedAt = LocalDateTime.now();
-        LocalDateTime expiresAt = issuedAt.plusNanos(tokenService.getClaimsFromToken(accessToken)
-                .getExpiration().getTime() - issuedAt.atZone(java.time.ZoneId.systemDefault()).toInstant().toEpochMilli());
+        LocalDateTime expiresAt = issuedAt.plus(Duration.ofMillis(tokenService.getAccessTokenValidityMs()));
         return new LoginResponseDTO(
                 user.getId(),
                 user.getEmail(),
@@ -119,8 +144,7 @@ public class AuthServiceImpl implements AuthService {
         RefreshToken newRefresh = tokenService.createRefreshToken(user);
         refreshTokenRepository.delete(stored);
         LocalDateTime issuedAt = LocalDateTime.now();
-        LocalDateTime expiresAt = issuedAt.plusNanos(tokenService.getClaimsFromToken(newAccessToken)
-                .getExpiration().getTime() - issuedAt.atZone(java.time.ZoneId.systemDefault()).toInstant().toEpochMilli());
+        LocalDateTime expiresAt = issuedAt.plus(Duration.ofMillis(tokenService.getAccessTokenValidityMs()));
         return new RefreshTokenResponseDTO(
                 newAccessToken,
                 newRefresh.getToken(),
@@ -159,24 +183,36 @@ public class AuthServiceImpl implements AuthService {
         );
     }
 
+    // Not @Transactional as a whole, for the same reason as register.
     @Override
-    @Transactional
     public PasswordChangeResponseDTO confirmPasswordReset(String token, String newPassword) {
+        // an unknown or expired token is rejected before it costs a hash
+        validResetToken(token);
+        String passwordHash = passwordHasher.hash(newPassword);
+        return transactionTemplate.execute(status -> {
+            // looked up again: the token may have been used while the hash was computed
+            User user = validResetToken(token).getUser();
+            user.setPassword(passwordHash);
+            user.setUpdatedAt(LocalDateTime.now());
+            user.setCredentialsChangedAt(user.getUpdatedAt());
+            userRepository.save(user);
+            passwordResetTokenRepository.deleteByUser(user);
+            refreshTokenRepository.deleteByUser(user);
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getEmail()));
+            return new PasswordChangeResponseDTO(
+                    "Password reset successful",
+                    user.getUpdatedAt()
+            );
+        });
+    }
+
+    private PasswordResetToken validResetToken(String token) {
         PasswordResetToken resetToken = passwordResetTokenRepository.findByToken(token)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid password reset token"));
         if (resetToken.getExpiryDate().isBefore(LocalDateTime.now())) {
             passwordResetTokenRepository.delete(resetToken);
             throw new IllegalArgumentException("Password reset token expired");
         }
-        User user = resetToken.getUser();
-        user.setPassword(passwordEncoder.encode(newPassword));
-        user.setUpdatedAt(LocalDateTime.now());
-        userRepository.save(user);
-        passwordResetTokenRepository.deleteByUser(user);
-        return new PasswordChangeResponseDTO(
-                "Password reset successful",
-                user.getUpdatedAt()
-        );
+        return resetToken;
     }
 }
-
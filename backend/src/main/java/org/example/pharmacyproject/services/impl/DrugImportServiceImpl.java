@@ -0,0 +1,364 @@
+package org.example.pharmacyproject.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.example.pharmacyproject.dtos.drugs.DrugImportErrorDTO;
+import org.example.pharmacyproject.dtos.drugs.DrugImportResultDTO;
+import org.example.pharmacyproject.dosage.DosageParser;
+import org.example.pharmacyproject.events.DrugCatalogInvalidatedEvent;
+import org.example.pharmacyproject.imports.CsvRecordReader;
+import org.example.pharmacyproject.imports.DrugImportRow;
+import org.example.pharmacyproject.services.DrugImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk drug import: parse → validate → batched upsert.
+ * <p>
+ * The request thread parses and validates while a dedicated writer thread sends the previous batch
+ * as one JDBC batch in its own transaction, so at most two batches are in memory at any time.
+ * With {@code rewriteBatchedStatements=true} on the MySQL URL each batch goes over the wire as a
+ * single multi-row INSERT ... ON DUPLICATE KEY UPDATE.
+ * <p>
+ * Only the id identifies a drug: rows without one are always inserted, so importing the same
+ * id-less file twice creates every drug twice. Name, manufacturer and dosage are not unique in
+ * real catalogs (or in generated test data), so they cannot serve as a natural key. Re-imports
+ * should use a file exported with ids (see the NDJSON export).
+ * <p>
+ * Every committed batch is visible at once, so the catalog is invalidated whenever at least one
+ * batch committed, also when the import later fails.
+ */
+@Service
+public class DrugImportServiceImpl implements DrugImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(DrugImportServiceImpl.class);
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int MAX_DESCRIPTION_LENGTH = 1000;
+    private static final long PROGRESS_LOG_INTERVAL = 100_000;
+    private static final long WRITER_SHUTDOWN_TIMEOUT_SECONDS = 60;
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO drugs (id, name, type, manufacturer, dosage, description, prescription_required, " +
+            "strength_value, strength_unit, dosage_form, dosage_frequency) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), type = VALUES(type), manufacturer = VALUES(manufacturer), " +
+            "dosage = VALUES(dosage), description = VALUES(description), " +
+            "prescription_required = VALUES(prescription_required), strength_value = VALUES(strength_value), " +
+            "strength_unit = VALUES(strength_unit), dosage_form = VALUES(dosage_form), " +
+            "dosage_frequency = VALUES(dosage_frequency)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader rowReader;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public DrugImportServiceImpl(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 ObjectMapper objectMapper,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${app.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rowReader = objectMapper.readerFor(DrugImportRow.class);
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    /** A row that passed validation, ready to bind. */
+    private record ValidRow(int line, Long id, String name, String type, String manufacturer,
+                            String dosage, String description, boolean prescriptionRequired,
+                            DosageParser.ParsedDosage parsedDosage) {}
+
+    /** Either a parsed row or the reason its line could not be parsed. */
+    private record ParsedRow(int line, DrugImportRow row, String error) {}
+
+    private interface RowSource {
+        /** @return the next row, or null at end of input */
+        ParsedRow next() throws IOException;
+    }
+
+    /** Counters shared between the parsing thread and the writer thread. */
+    private static final class ImportRun {
+        private long processed;
+        private long imported;
+        private long failed;
+        private final List<DrugImportErrorDTO> errors = new ArrayList<>();
+
+        synchronized long imported() {
+            return imported;
+        }
+
+        synchronized void processed() {
+            processed++;
+        }
+
+        synchronized void imported(int rows) {
+            imported += rows;
+            if (imported / PROGRESS_LOG_INTERVAL != (imported - rows) / PROGRESS_LOG_INTERVAL) {
+                log.info("Drug import progress: {} rows imported, {} failed", imported, failed);
+            }
+        }
+
+        synchronized void failed(int line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new DrugImportErrorDTO(line, message));
+            }
+        }
+    }
+
+    @Override
+    public DrugImportResultDTO importDrugs(InputStream input, Format format) throws IOException {
+        long started = System.currentTimeMillis();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+        RowSource source = format == Format.CSV ? csvSource(reader) : ndjsonSource(reader);
+        ImportRun run = new ImportRun();
+
+        ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "drug-import-writer"));
+        boolean finished = false;
+        try {
+            Future<?> pending = null;
+            List<ValidRow> batch = new ArrayList<>(batchSize);
+            for (ParsedRow parsed = source.next(); parsed != null; parsed = source.next()) {
+                run.processed();
+                ValidRow valid = parsed.error() == null ? validate(parsed, run) : null;
+                if (parsed.error() != null) {
+                    run.failed(parsed.line(), parsed.error());
+                }
+                if (valid == null) {
+                    continue;
+                }
+                batch.add(valid);
+                if (batch.size() == batchSize) {
+                    awaitWrite(pending);
+                    List<ValidRow> full = batch;
+                    pending = writer.submit(() -> writeBatch(full, run));
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            awaitWrite(pending);
+            if (!batch.isEmpty()) {
+                writeBatch(batch, run);
+            }
+            finished = true;
+        } finally {
+            // let a batch already handed to the writer commit (or fail) before deciding on the event
+            writer.shutdown();
+            awaitWriter(writer);
+            // batches commit one by one, so even a failed import may have changed the catalog
+            long imported = run.imported();
+            if (imported > 0) {
+                eventPublisher.publishEvent(new DrugCatalogInvalidatedEvent(
+                        (finished ? "bulk import of " : "aborted bulk import, after ") + imported + " drugs"));
+            }
+        }
+
+        long duration = System.currentTimeMillis() - started;
+        log.info("Drug import finished: {} processed, {} imported, {} failed in {} ms",
+                run.processed, run.imported, run.failed, duration);
+        return new DrugImportResultDTO(run.processed, run.imported, run.failed, duration, run.errors);
+    }
+
+    private void writeBatch(List<ValidRow> batch, ImportRun run) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, row) -> {
+                        if (row.id() == null) {
+                            ps.setNull(1, java.sql.Types.BIGINT);
+                        } else {
+                            ps.setLong(1, row.id());
+                        }
+                        ps.setString(2, row.name());
+                        ps.setString(3, row.type());
+                        ps.setString(4, row.manufacturer());
+                        ps.setString(5, row.dosage());
+                        ps.setString(6, row.description());
+                        ps.setBoolean(7, row.prescriptionRequired());
+                        if (row.parsedDosage().strength() == null) {
+                            ps.setNull(8, java.sql.Types.DOUBLE);
+                        } else {
+                            ps.setDouble(8, row.parsedDosage().strength());
+                        }
+                        ps.setString(9, row.parsedDosage().unit());
+                        ps.setString(10, row.parsedDosage().form());
+                        ps.setString(11, row.parsedDosage().frequency());
+                    }));
+            run.imported(batch.size());
+        } catch (DataAccessException e) {
+            String message = "Batch rejected by database: " + e.getMostSpecificCause().getMessage();
+            for (ValidRow row : batch) {
+                run.failed(row.line(), message);
+            }
+        }
+    }
+
+    private static void awaitWriter(ExecutorService writer) {
+        try {
+            if (!writer.awaitTermination(WRITER_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitWrite(Future<?> pending) throws IOException {
+        if (pending == null) {
+            return;
+        }
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Drug import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Drug import writer failed", e.getCause());
+        }
+    }
+
+    private static ValidRow validate(ParsedRow parsed, ImportRun run) {
+        DrugImportRow row = parsed.row();
+        List<String> problems = new ArrayList<>();
+        String name = requiredText(row.getName(), "name", MAX_TEXT_LENGTH, problems);
+        String type = requiredText(row.getType(), "type", MAX_TEXT_LENGTH, problems);
+        String manufacturer = requiredText(row.getManufacturer(), "manufacturer", MAX_TEXT_LENGTH, problems);
+        String dosage = requiredText(row.getDosage(), "dosage", MAX_TEXT_LENGTH, problems);
+        String description = requiredText(row.getDescription(), "description", MAX_DESCRIPTION_LENGTH, problems);
+        Boolean prescriptionRequired = parseBoolean(row.getPrescriptionRequired());
+        if (prescriptionRequired == null) {
+            problems.add("prescriptionRequired must be true or false");
+        }
+        Long id = null;
+        if (row.getId() != null && !row.getId().isBlank()) {
+            try {
+                id = Long.parseLong(row.getId().trim());
+                if (id <= 0) {
+                    problems.add("id must be positive");
+                }
+            } catch (NumberFormatException e) {
+                problems.add("id is not a number");
+            }
+        }
+        if (!problems.isEmpty()) {
+            run.failed(parsed.line(), String.join("; ", problems));
+            return null;
+        }
+        return new ValidRow(parsed.line(), id, name, type, manufacturer, dosage, description, prescriptionRequired,
+                DosageParser.parse(dosage));
+    }
+
+    private static String requiredText(String value, String field, int maxLength, List<String> problems) {
+        if (value == null || value.isBlank()) {
+            problems.add(field + " is required");
+            return null;
+        }
+        String trimmed = value.trim();
+        if (trimmed.length() > maxLength) {
+            problems.add(field + " is longer than " + maxLength + " characters");
+        }
+        return trimmed;
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "y", "1" -> Boolean.TRUE;
+            case "false", "no", "n", "0" -> Boolean.FALSE;
+            default -> null;
+        };
+    }
+
+    private RowSource ndjsonSource(BufferedReader reader) {
+        int[] line = {0};
+        return () -> {
+            String text;
+            do {
+                text = reader.readLine();
+                line[0]++;
+            } while (text != null && text.isBlank());
+            if (text == null) {
+                return null;
+            }
+            try {
+                return new ParsedRow(line[0], rowReader.readValue(text), null);
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(line[0], null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        };
+    }
+
+    /**
+     * The first record is the header; columns are matched by name, case-insensitively, in any order.
+     */
+    private static RowSource csvSource(BufferedReader reader) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return () -> null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+        }
+        for (String required : List.of("name", "type", "manufacturer", "dosage", "description", "prescriptionrequired")) {
+            if (!columns.containsKey(required)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header is missing column: " + required);
+            }
+        }
+        return () -> {
+            List<String> fields = csv.next();
+            if (fields == null) {
+                return null;
+            }
+            if (fields.size() != header.size()) {
+                return new ParsedRow(csv.getRecordLine(), null,
+                        "Expected " + header.size() + " fields but found " + fields.size());
+            }
+            DrugImportRow row = new DrugImportRow();
+            row.setId(field(fields, columns, "id"));
+            row.setName(field(fields, columns, "name"));
+            row.setType(field(fields, columns, "type"));
+            row.setManufacturer(field(fields, columns, "manufacturer"));
+            row.setDosage(field(fields, columns, "dosage"));
+            row.setDescription(field(fields, columns, "description"));
+            row.setPrescriptionRequired(field(fields, columns, "prescriptionrequired"));
+            return new ParsedRow(csv.getRecordLine(), row, null);
+        };
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index == null ? null : fields.get(index);
+    }
+}
@@ -1,44 +1,245 @@
 package org.example.pharmacyproject.services.impl;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.example.pharmacyproject.cache.DrugCache;
+import org.example.pharmacyproject.catalog.CatalogSnapshot;
+import org.example.pharmacyproject.catalog.CatalogVersion;
+import org.example.pharmacyproject.dosage.DosageFilter;
+import org.example.pharmacyproject.dtos.drugs.DrugBatchDTO;
+import org.example.pharmacyproject.dtos.drugs.DrugChangesDTO;
 import org.example.pharmacyproject.dtos.drugs.DrugDTO;
+import org.example.pharmacyproject.dtos.drugs.DrugListRequestDTO;
+import org.example.pharmacyproject.dtos.drugs.DrugSummaryDTO;
+import org.example.pharmacyproject.dtos.pagination.CursorPageDTO;
 import org.example.pharmacyproject.entities.Drug;
 import org.example.pharmacyproject.repositories.DrugRepository;
+import org.example.pharmacyproject.repositories.DrugSummary;
 import org.example.pharmacyproject.services.DrugService;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class DrugServiceImpl implements DrugService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_BATCH_SIZE = 5000;
+
     private final DrugRepository drugRepository;
+    private final DrugCache drugCache;
+    private final CatalogSnapshot catalogSnapshot;
+    private final CatalogVersion catalogVersion;
+    private final EntityManager entityManager;
+    private final ObjectWriter drugWriter;
 
     // Constructor injection ensures the repository is initialized
-    public DrugServiceImpl(DrugRepository drugRepository) {
+    public DrugServiceImpl(DrugRepository drugRepository,
+                           DrugCache drugCache,
+                           CatalogSnapshot catalogSnapshot,
+                           CatalogVersion catalogVersion,
+                           EntityManager entityManager,
+                           ObjectMapper objectMapper) {
         this.drugRepository = drugRepository;
+        this.drugCache = drugCache;
+        this.catalogSnapshot = catalogSnapshot;
+        this.catalogVersion = catalogVersion;
+        this.entityManager = entityManager;
+        this.drugWriter = objectMapper.writerFor(DrugDTO.class);
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public List<DrugDTO> listAll() {
-        return drugRepository.findAll()
-                .stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<DrugSummaryDTO> listPage(DrugListRequestDTO request) {
+        int pageSize = Math.max(1, Math.min(request.getLimit(), MAX_PAGE_SIZE));
+        // fetch one extra row to learn whether another page exists without a COUNT query
+        Limit limit = Limit.of(pageSize + 1);
+        String type = blankToNull(request.getType());
+        String manufacturer = blankToNull(request.getManufacturer());
+        DosageFilter dosage = request.toDosageFilter();
+
+        boolean filtered = type != null || manufacturer != null || request.getPrescriptionRequired() != null
+                || !dosage.isEmpty();
+
+        // Only unfiltered pages come from the snapshot. Filtered ones seek the (filter, id) indexes,
+        // where the snapshot would decode and test every drug it skips.
+        List<DrugSummary> rows;
+        if (!filtered && catalogSnapshot.isReady()) {
+            rows = snapshotPage(request, pageSize + 1);
+        } else if (request.isDescending()) {
+            long beforeId = request.getCursor() == null ? Long.MAX_VALUE : decodeCursor(request.getCursor());
+            rows = drugRepository.findPageBefore(beforeId, type, manufacturer, request.getPrescriptionRequired(),
+                    dosage.unit(), dosage.form(), dosage.strengthMin(), dosage.strengthMax(), limit);
+        } else {
+            long afterId = request.getCursor() == null ? 0L : decodeCursor(request.getCursor());
+            rows = drugRepository.findPageAfter(afterId, type, manufacturer, request.getPrescriptionRequired(),
+                    dosage.unit(), dosage.form(), dosage.strengthMin(), dosage.strengthMax(), limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<DrugSummary> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1).id()) : null;
+        return new CursorPageDTO<>(
+                page.stream().map(DrugServiceImpl::toSummaryDTO).collect(Collectors.toList()),
+                nextCursor,
+                hasMore
+        );
     }
 
     @Override
-    @Transactional(readOnly = true)
     public DrugDTO getById(Long id) {
-        Drug drug = drugRepository.findById(id)
+        Drug drug = (catalogSnapshot.isReady() ? catalogSnapshot.findById(id) : drugCache.findById(id))
                 .orElseThrow(() -> new EntityNotFoundException("Drug not found with id: " + id));
         return toDTO(drug);
     }
 
+    @Override
+    public DrugBatchDTO getByIds(Collection<Long> ids) {
+        // request order, first occurrence wins
+        Set<Long> requested = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id != null) {
+                requested.add(id);
+            }
+        }
+        if (requested.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_BATCH_SIZE + " drug ids per batch, got " + requested.size());
+        }
+        return resolve(requested);
+    }
+
+    @Override
+    public DrugChangesDTO changesSince(long since) {
+        CatalogVersion.Changes changes = catalogVersion.changesSince(since);
+        if (changes.fullResync()) {
+            return new DrugChangesDTO(changes.version(), true, List.of(), List.of());
+        }
+        // the change log may list more ids than a client batch is allowed, so skip the batch cap
+        Set<Long> upserted = Arrays.stream(changes.upserted()).boxed().collect(Collectors.toCollection(LinkedHashSet::new));
+        DrugBatchDTO current = resolve(upserted);
+        // a drug deleted after the change log was read is reported as deleted rather than dropped
+        List<Long> deletions = new ArrayList<>(current.getMissing());
+        for (long id : changes.deleted()) {
+            deletions.add(id);
+        }
+        return new DrugChangesDTO(changes.version(), false, current.getDrugs(), deletions);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportNdjson(long afterId, OutputStream out) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        try (Stream<Drug> drugs = drugRepository.streamAllAfter(afterId)) {
+            drugs.forEach(drug -> {
+                try {
+                    buffered.write(drugWriter.writeValueAsBytes(toDTO(drug)));
+                    buffered.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                // keep the persistence context from growing with every streamed row
+                entityManager.detach(drug);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        buffered.flush();
+    }
+
+    /**
+     * Looks the ids up in the snapshot, or the drug cache before the snapshot is loaded.
+     *
+     * @param requested distinct ids in the order to return them
+     */
+    private DrugBatchDTO resolve(Set<Long> requested) {
+        Map<Long, Drug> found;
+        if (catalogSnapshot.isReady()) {
+            found = new HashMap<>();
+            for (Long id : requested) {
+                catalogSnapshot.findById(id).ifPresent(drug -> found.put(id, drug));
+            }
+        } else {
+            found = drugCache.findAllById(requested);
+        }
+
+        List<DrugDTO> drugs = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            Drug drug = found.get(id);
+            if (drug != null) {
+                drugs.add(toDTO(drug));
+            } else {
+                missing.add(id);
+            }
+        }
+        return new DrugBatchDTO(drugs, missing);
+    }
+
+    private List<DrugSummary> snapshotPage(DrugListRequestDTO request, int limit) {
+        List<Drug> drugs;
+        if (request.isDescending()) {
+            long beforeId = request.getCursor() == null ? Long.MAX_VALUE : decodeCursor(request.getCursor());
+            drugs = catalogSnapshot.pageBefore(beforeId, limit);
+        } else {
+            long afterId = request.getCursor() == null ? 0L : decodeCursor(request.getCursor());
+            drugs = catalogSnapshot.pageAfter(afterId, limit);
+        }
+        return drugs.stream()
+                .map(drug -> new DrugSummary(drug.getId(), drug.getName(), drug.getType(),
+                        drug.getManufacturer(), drug.isPrescriptionRequired()))
+                .collect(Collectors.toList());
+    }
+
+    private static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            // a client error: without this the IllegalArgumentException would surface as a 500
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static DrugSummaryDTO toSummaryDTO(DrugSummary summary) {
+        return new DrugSummaryDTO(
+                summary.id(),
+                summary.name(),
+                summary.type(),
+                summary.manufacturer(),
+                summary.prescriptionRequired()
+        );
+    }
+
     private DrugDTO toDTO(Drug drug) {
         return new DrugDTO(
                 drug.getId(),
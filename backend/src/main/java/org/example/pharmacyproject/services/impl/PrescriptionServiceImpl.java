@@ -1,6 +1,7 @@
 package org.example.pharmacyproject.services.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.example.pharmacyproject.catalog.CatalogSnapshot;
 import org.example.pharmacyproject.dtos.prescriptions.PrescriptionCreateRequestDTO;
 import org.example.pharmacyproject.dtos.prescriptions.PrescriptionDTO;
 import org.example.pharmacyproject.dtos.prescriptions.PrescriptionUpdateRequestDTO;
@@ -23,11 +24,14 @@ public class PrescriptionServiceImpl implements PrescriptionService {
     private final PrescriptionRepository prescriptionRepository;
     private final UserRepository userRepository;
     private final DrugRepository drugRepository;
+    private final CatalogSnapshot catalogSnapshot;
 
-    public PrescriptionServiceImpl(PrescriptionRepository prescriptionRepository, UserRepository userRepository, DrugRepository drugRepository) {
+    public PrescriptionServiceImpl(PrescriptionRepository prescriptionRepository, UserRepository userRepository,
+                                   DrugRepository drugRepository, CatalogSnapshot catalogSnapshot) {
         this.prescriptionRepository = prescriptionRepository;
         this.userRepository = userRepository;
         this.drugRepository = drugRepository;
+        this.catalogSnapshot = catalogSnapshot;
     }
 
 
@@ -35,7 +39,7 @@ public class PrescriptionServiceImpl implements PrescriptionService {
         PrescriptionDTO dto = new PrescriptionDTO();
         dto.setId(p.getId());
         dto.setUserId(p.getUser().getId());
-        dto.setDrugName(p.getDrug().getName());
+        dto.setDrugName(drugName(p.getDrug()));
         dto.setDosage(p.getDosage());
         dto.setFrequency(p.getFrequency());
         dto.setPrescriptionRequired(p.isPrescriptionRequired());
@@ -44,6 +48,17 @@ public class PrescriptionServiceImpl implements PrescriptionService {
         return dto;
     }
 
+    // drug is a lazy association: reading its id does not load it, so take the name from the snapshot
+    private String drugName(Drug drug) {
+        if (catalogSnapshot.isReady()) {
+            Optional<Drug> cached = catalogSnapshot.findById(drug.getId());
+            if (cached.isPresent()) {
+                return cached.get().getName();
+            }
+        }
+        return drug.getName();
+    }
+
     @Override
     public List<PrescriptionDTO> listAll(Long userId) {
         return prescriptionRepository
@@ -63,8 +78,10 @@ public class PrescriptionServiceImpl implements PrescriptionService {
     @Override
     public PrescriptionDTO create(Long userId, PrescriptionCreateRequestDTO dto) {
         Optional<User> user = userRepository.findById(userId);
-        // fetch the Drug entity
-        Optional<Drug> drug = drugRepository.findById(dto.getDrugId());
+        // the snapshot answers whether the drug exists; a reference is all the foreign key needs
+        Optional<Drug> drug = catalogSnapshot.isReady()
+                ? catalogSnapshot.findById(dto.getDrugId()).map(found -> drugRepository.getReferenceById(found.getId()))
+                : drugRepository.findById(dto.getDrugId());
         Prescription p = new Prescription();
         p.setUser(user.orElse(null));
         p.setDrug(drug.orElse(null));
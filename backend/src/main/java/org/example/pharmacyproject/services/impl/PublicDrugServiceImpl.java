@@ -1,13 +1,38 @@
 package org.example.pharmacyproject.services.impl;
 
+import org.example.pharmacyproject.cache.DrugCache;
+import org.example.pharmacyproject.catalog.CatalogSnapshot;
+import org.example.pharmacyproject.catalog.MappedCatalog;
+import org.example.pharmacyproject.commonTypes.SearchEngine;
+import org.example.pharmacyproject.commonTypes.SearchMode;
+import org.example.pharmacyproject.dosage.DosageFilter;
 import org.example.pharmacyproject.dtos.drugs.DrugDTO;
+import org.example.pharmacyproject.dtos.drugs.DrugSuggestionDTO;
+import org.example.pharmacyproject.dtos.drugs.DrugSummaryDTO;
+import org.example.pharmacyproject.dtos.drugs.FacetedSearchResultDTO;
 import org.example.pharmacyproject.entities.Drug;
 import org.example.pharmacyproject.repositories.DrugRepository;
+import org.example.pharmacyproject.repositories.DrugSummary;
+import org.example.pharmacyproject.search.DrugFacetIndex;
+import org.example.pharmacyproject.search.DrugNameTrigramIndex;
+import org.example.pharmacyproject.search.DrugSearchIndex;
+import org.example.pharmacyproject.search.DrugSuggester;
+import org.example.pharmacyproject.search.ShardedSearchExecutor;
+import org.example.pharmacyproject.search.SearchTokenizer;
 import org.example.pharmacyproject.services.PublicDrugService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -17,43 +42,231 @@ import java.util.stream.Collectors;
 public class PublicDrugServiceImpl implements PublicDrugService {
 
     private final DrugRepository drugRepository;
+    private final DrugSearchIndex drugSearchIndex;
+    private final DrugNameTrigramIndex drugNameTrigramIndex;
+    private final DrugSuggester drugSuggester;
+    private final DrugFacetIndex drugFacetIndex;
+    private final DrugCache drugCache;
+    private final CatalogSnapshot catalogSnapshot;
+    private final ShardedSearchExecutor shardedSearch;
+    private final SearchEngine searchEngine;
     private static final int MAX_PUBLIC_RESULTS = 20;
+    // ranking a deep page keeps every result before it, so the depth is bounded
+    private static final int MAX_PUBLIC_PAGES = 50;
 
     @Autowired
-    public PublicDrugServiceImpl(DrugRepository drugRepository) {
+    public PublicDrugServiceImpl(DrugRepository drugRepository,
+                                 DrugSearchIndex drugSearchIndex,
+                                 DrugNameTrigramIndex drugNameTrigramIndex,
+                                 DrugSuggester drugSuggester,
+                                 DrugFacetIndex drugFacetIndex,
+                                 DrugCache drugCache,
+                                 CatalogSnapshot catalogSnapshot,
+                                 ShardedSearchExecutor shardedSearch,
+                                 @Value("${app.search.engine:memory}") SearchEngine searchEngine) {
         this.drugRepository = drugRepository;
+        this.drugSearchIndex = drugSearchIndex;
+        this.drugNameTrigramIndex = drugNameTrigramIndex;
+        this.drugSuggester = drugSuggester;
+        this.drugFacetIndex = drugFacetIndex;
+        this.drugCache = drugCache;
+        this.catalogSnapshot = catalogSnapshot;
+        this.shardedSearch = shardedSearch;
+        this.searchEngine = searchEngine;
     }
 
     @Override
-    public List<DrugDTO> listPublicDrugs() {
-        return drugRepository.findAll().stream()
-                .map(this::convertToPublicDTO)
-                .limit(MAX_PUBLIC_RESULTS)
+    public List<DrugSummaryDTO> listPublicDrugs() {
+        if (catalogSnapshot.isReady()) {
+            return catalogSnapshot.pageAfter(0L, MAX_PUBLIC_RESULTS).stream()
+                    .map(PublicDrugServiceImpl::convertToPublicSummaryDTO)
+                    .collect(Collectors.toList());
+        }
+        return drugRepository.findSummaries(Limit.of(MAX_PUBLIC_RESULTS)).stream()
+                .map(PublicDrugServiceImpl::convertToPublicSummaryDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<DrugDTO> searchPublicDrugs(String query) {
+    public List<DrugDTO> searchPublicDrugs(String query, SearchMode mode, boolean explain, DosageFilter dosage, int page) {
+        if (page < 0 || page >= MAX_PUBLIC_PAGES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "page must be between 0 and " + (MAX_PUBLIC_PAGES - 1));
+        }
+        // the in-memory paths rank or scan the first (page + 1) pages and drop the earlier ones
+        int depth = (page + 1) * MAX_PUBLIC_RESULTS;
+        int skip = page * MAX_PUBLIC_RESULTS;
+
         if (query == null || query.trim().isEmpty()) {
-            return listPublicDrugs();
+            // search result cards show a description snippet, so this stays on full entities
+            if (!dosage.isEmpty()) {
+                // the dosage indexes find the ids; only the requested page is resolved
+                List<Long> ids = drugRepository.findPageAfter(0L, null, null, null,
+                                dosage.unit(), dosage.form(), dosage.strengthMin(), dosage.strengthMax(),
+                                Limit.of(depth)).stream()
+                        .skip(skip)
+                        .map(DrugSummary::id)
+                        .collect(Collectors.toList());
+                return findAllById(ids).stream()
+                        .map(this::convertToPublicDTO)
+                        .collect(Collectors.toList());
+            }
+            List<Drug> upToPage = catalogSnapshot.isReady()
+                    ? catalogSnapshot.pageAfter(0L, depth)
+                    : drugRepository.findByOrderByIdAsc(Limit.of(depth));
+            return upToPage.stream()
+                    .skip(skip)
+                    .map(this::convertToPublicDTO)
+                    .collect(Collectors.toList());
         }
 
         String normalizedQuery = query.toLowerCase().trim();
 
-        return drugRepository.findAll().stream()
-                .filter(drug -> matchesDrugSearchCriteria(drug, normalizedQuery))
+        // every engine filters while ranking, so a selective dosage filter still fills the page
+        if (searchEngine == SearchEngine.FULLTEXT) {
+            return fullTextSearch(normalizedQuery, mode, dosage, page).stream()
+                    .map(this::convertToPublicDTO)
+                    .collect(Collectors.toList());
+        }
+
+        if (mode == SearchMode.FUZZY && drugNameTrigramIndex.isReady()) {
+            return drugNameTrigramIndex.search(normalizedQuery, dosage, depth).stream()
+                    .skip(skip)
+                    .map(this::convertToPublicDTO)
+                    .collect(Collectors.toList());
+        }
+
+        if (drugSearchIndex.isReady()) {
+            return drugSearchIndex.searchRanked(normalizedQuery, dosage, depth).stream()
+                    .skip(skip)
+                    .map(hit -> {
+                        DrugDTO dto = convertToPublicDTO(hit.drug());
+                        if (explain) {
+                            dto.setScore(hit.score());
+                        }
+                        return dto;
+                    })
+                    .collect(Collectors.toList());
+        }
+
+        // Index still loading: fall back to a scan so search works during startup.
+        // The scan keeps the lowest matching ids, split across cores for large catalogs.
+        Comparator<Drug> highestIdFirst = Comparator.comparing(Drug::getId, Comparator.reverseOrder());
+        MappedCatalog file = catalogSnapshot.servingFile().orElse(null);
+        List<Drug> matches;
+        if (file != null) {
+            // match on the mapped bytes and decode only the hits
+            byte[] queryBytes = MappedCatalog.queryBytes(normalizedQuery);
+            matches = shardedSearch.topK(file.size(), i -> {
+                if (!file.textContains(i, queryBytes)) {
+                    return null;
+                }
+                Drug drug = file.drugAt(i);
+                return dosage.matches(drug) ? drug : null;
+            }, highestIdFirst, depth);
+        } else {
+            List<Drug> all = catalogSnapshot.isReady() ? catalogSnapshot.all() : drugRepository.findAll();
+            matches = shardedSearch.topK(all.size(), i -> {
+                Drug drug = all.get(i);
+                return matchesDrugSearchCriteria(drug, normalizedQuery) && dosage.matches(drug) ? drug : null;
+            }, highestIdFirst, depth);
+        }
+        return matches.stream()
+                .skip(skip)
                 .map(this::convertToPublicDTO)
-                .limit(MAX_PUBLIC_RESULTS)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public boolean isSearchReady(SearchMode mode) {
+        if (searchEngine == SearchEngine.FULLTEXT) {
+            return true;
+        }
+        return mode == SearchMode.FUZZY ? drugNameTrigramIndex.isReady() : drugSearchIndex.isReady();
+    }
+
+    @Override
+    public FacetedSearchResultDTO facetedSearch(String query, String type, String manufacturer, Boolean prescriptionRequired) {
+        boolean memorySearch = searchEngine == SearchEngine.MEMORY;
+        if (!drugFacetIndex.isReady() || (memorySearch && !drugSearchIndex.isReady())) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Drug facets are still loading, retry shortly");
+        }
+        long[] candidateIds = null;
+        if (query != null && !query.isBlank()) {
+            candidateIds = memorySearch
+                    ? drugSearchIndex.matchingIds(query.toLowerCase().trim())
+                    : drugRepository.findFullTextBooleanIds(toBooleanQuery(query)).stream().mapToLong(Long::longValue).toArray();
+        }
+        DrugFacetIndex.FacetResult result = drugFacetIndex.search(
+                candidateIds, blankToNull(type), blankToNull(manufacturer), prescriptionRequired, MAX_PUBLIC_RESULTS);
+        return new FacetedSearchResultDTO(
+                result.drugs().stream().map(this::convertToPublicDTO).collect(Collectors.toList()),
+                result.total(),
+                result.types(),
+                result.manufacturers(),
+                result.prescriptionRequired(),
+                result.prescriptionNotRequired()
+        );
+    }
+
+    @Override
+    public List<DrugSuggestionDTO> suggest(String prefix, int limit) {
+        return drugSuggester.suggest(prefix, limit).stream()
+                .map(suggestion -> new DrugSuggestionDTO(suggestion.text(), suggestion.kind().name()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The drugs with the given ids, in the same order, skipping any deleted meanwhile.
+     */
+    private List<Drug> findAllById(List<Long> ids) {
+        if (catalogSnapshot.isReady()) {
+            List<Drug> drugs = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                catalogSnapshot.findById(id).ifPresent(drugs::add);
+            }
+            return drugs;
+        }
+        Map<Long, Drug> found = drugCache.findAllById(ids);
+        return ids.stream().map(found::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
     @Override
     public DrugDTO getPublicDrugById(Long id) {
-        return drugRepository.findById(id)
+        return (catalogSnapshot.isReady() ? catalogSnapshot.findById(id) : drugCache.findById(id))
                 .map(this::convertToPublicDTO)
                 .orElseThrow(() -> new RuntimeException("Drug not found with id: " + id));
     }
 
+    /**
+     * One page of MySQL full-text matches that pass the dosage filter, most relevant first.
+     * Keyword mode requires every word as a prefix, like the in-memory index; fuzzy mode has no
+     * trigram equivalent in MySQL, so it uses natural language mode, which ranks drugs sharing any word.
+     */
+    private List<Drug> fullTextSearch(String query, SearchMode mode, DosageFilter dosage, int page) {
+        // MySQL ranks and pages in the query, so only the requested page is read
+        PageRequest pageRequest = PageRequest.of(page, MAX_PUBLIC_RESULTS);
+        if (mode == SearchMode.FUZZY) {
+            return drugRepository.searchFullTextNatural(query, dosage.unit(), dosage.form(),
+                    dosage.strengthMin(), dosage.strengthMax(), pageRequest).getContent();
+        }
+        String booleanQuery = toBooleanQuery(query);
+        if (booleanQuery.isEmpty()) {
+            return List.of();
+        }
+        return drugRepository.searchFullTextBoolean(booleanQuery, dosage.unit(), dosage.form(),
+                dosage.strengthMin(), dosage.strengthMax(), pageRequest).getContent();
+    }
+
+    /**
+     * "ibu tab" becomes "+ibu* +tab*". Terms are plain letters and digits, so user input cannot inject operators.
+     */
+    private static String toBooleanQuery(String query) {
+        return SearchTokenizer.queryTerms(query).stream()
+                .map(term -> "+" + term + "*")
+                .collect(Collectors.joining(" "));
+    }
+
     /**
      * Converts a Drug entity to a DrugDTO with only the information suitable for public access.
      */
@@ -74,6 +287,30 @@ public class PublicDrugServiceImpl implements PublicDrugService {
         return dto;
     }
 
+    private static DrugSummaryDTO convertToPublicSummaryDTO(Drug drug) {
+        return new DrugSummaryDTO(
+                drug.getId(),
+                drug.getName(),
+                drug.getType(),
+                drug.getManufacturer(),
+                drug.isPrescriptionRequired()
+        );
+    }
+
+    private static DrugSummaryDTO convertToPublicSummaryDTO(DrugSummary summary) {
+        return new DrugSummaryDTO(
+                summary.id(),
+                summary.name(),
+                summary.type(),
+                summary.manufacturer(),
+                summary.prescriptionRequired()
+        );
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
     /**
      * Checks if a drug matches the search criteria.
      */
@@ -1,35 +1,52 @@
 package org.example.pharmacyproject.services.impl;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
+import org.example.pharmacyproject.cache.VerifiedTokenCache;
 import org.example.pharmacyproject.entities.User;
 import org.example.pharmacyproject.entities.tokens.RefreshToken;
 import org.example.pharmacyproject.repositories.RefreshTokenRepository;
+import org.example.pharmacyproject.security.SecurityConstants;
 import org.example.pharmacyproject.services.TokenService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
 import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+/**
+ * Issues and verifies tokens. The signing key is decoded and the JWT parser built once; the parser
+ * is immutable and shared by all request threads. {@link #verifyAccessToken} does the single
+ * parse + HMAC check per token, and {@link VerifiedTokenCache} absorbs repeats of the same token.
+ */
 @Service
 public class TokenServiceImpl implements TokenService {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
-
-    @Value("${jwt.expirationMs}")
-    private long jwtExpirationMs;
-
-    @Value("${jwt.refreshExpirationMs}")
-    private long refreshTokenDurationMs;
+    private final long jwtExpirationMs;
+    private final long refreshTokenDurationMs;
+    private final Key signingKey;
+    private final JwtParser parser;
 
     private final RefreshTokenRepository refreshTokenRepository;
+    private final VerifiedTokenCache verifiedTokenCache;
 
-    public TokenServiceImpl(RefreshTokenRepository refreshTokenRepository) {
+    public TokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
+                            VerifiedTokenCache verifiedTokenCache,
+                            @Value("${jwt.secret}") String jwtSecret,
+                            @Value("${jwt.expirationMs}") long jwtExpirationMs,
+                            @Value("${jwt.refreshExpirationMs}") long refreshTokenDurationMs) {
         this.refreshTokenRepository = refreshTokenRepository;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.refreshTokenDurationMs = refreshTokenDurationMs;
+        // the secret is base64, as the string-keyed signWith/setSigningKey used to treat it
+        this.signingKey = new SecretKeySpec(Decoders.BASE64.decode(jwtSecret), SignatureAlgorithm.HS256.getJcaName());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
 
     @Override
@@ -39,13 +56,19 @@ public class TokenServiceImpl implements TokenService {
 
         return Jwts.builder()
                 .setSubject(user.getEmail())
-                .claim("roles", List.of(user.getRole().toString()))
+                .claim(SecurityConstants.CLAIM_USER_ID, user.getId())
+                .claim(SecurityConstants.CLAIM_ROLES, List.of(user.getRole().getName()))
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(SignatureAlgorithm.HS256, jwtSecret)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    @Override
+    public long getAccessTokenValidityMs() {
+        return jwtExpirationMs;
+    }
+
     @Override
     public RefreshToken createRefreshToken(User user) {
         RefreshToken refreshToken = new RefreshToken(
@@ -57,24 +80,34 @@ public class TokenServiceImpl implements TokenService {
     }
 
     @Override
-    public boolean validateAccessToken(String token) {
+    public Claims verifyAccessToken(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        return verifiedTokenCache.get(token, this::parse);
+    }
+
+    private Claims parse(String token) {
         try {
-            Jwts.parser()
-                    .setSigningKey(jwtSecret)
-                    .parseClaimsJws(token);
-            return true;
+            return parser.parseClaimsJws(token).getBody();
         } catch (JwtException | IllegalArgumentException e) {
-            // log invalid token
-            return false;
+            // invalid, tampered or expired
+            return null;
         }
     }
 
+    @Override
+    public boolean validateAccessToken(String token) {
+        return verifyAccessToken(token) != null;
+    }
+
     @Override
     public Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = verifyAccessToken(token);
+        if (claims == null) {
+            throw new JwtException("Invalid or expired access token");
+        }
+        return claims;
     }
 
     @Override
@@ -85,7 +118,7 @@ public class TokenServiceImpl implements TokenService {
     @Override
     @SuppressWarnings("unchecked")
     public List<String> getRolesFromToken(String token) {
-        Object rolesObj = getClaimsFromToken(token).get("roles");
+        Object rolesObj = getClaimsFromToken(token).get(SecurityConstants.CLAIM_ROLES);
         if (rolesObj instanceof List<?>) {
             return ((List<?>) rolesObj).stream()
                     .map(Object::toString)
@@ -9,22 +9,33 @@ import org.example.pharmacyproject.dtos.user.password.change.PasswordChangeRespo
 import org.example.pharmacyproject.dtos.user.profile.UserProfileResponseDTO;
 import org.example.pharmacyproject.dtos.user.profile.UserProfileUpdateRequestDTO;
 import org.example.pharmacyproject.entities.User;
+import org.example.pharmacyproject.events.UserChangedEvent;
 import org.example.pharmacyproject.repositories.UserRepository;
+import org.example.pharmacyproject.security.PasswordHasher;
 import org.example.pharmacyproject.services.UserService;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
 @Service
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     public UserServiceImpl(UserRepository userRepository,
-                           PasswordEncoder passwordEncoder) {
+                           PasswordHasher passwordHasher,
+                           ApplicationEventPublisher eventPublisher,
+                           TransactionTemplate transactionTemplate) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
     }
     @Override
     @Transactional(readOnly = true)
@@ -98,21 +109,36 @@ public class UserServiceImpl implements UserService {
         );
     }
 
+    // Not @Transactional as a whole: both BCrypt operations may queue on the hashing pool and must not
+    // hold a database connection meanwhile, so only the final write runs in a transaction.
     @Override
-    @Transactional
     public PasswordChangeResponseDTO changePassword(Long userId, PasswordChangeRequestDTO dto) {
-        User user = userRepository.findById(userId)
+        User current = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        if (!passwordEncoder.matches(dto.getOldPassword(), user.getPassword())) {
+        String checkedHash = current.getPassword();
+        if (!passwordHasher.matches(dto.getOldPassword(), checkedHash)) {
             throw new IllegalArgumentException("Old password is incorrect");
         }
-        user.setPassword(passwordEncoder.encode(dto.getNewPassword()));
-        user.setUpdatedAt(LocalDateTime.now());
-        userRepository.save(user);
-        return new PasswordChangeResponseDTO(
-                "Password changed successfully",
-                user.getUpdatedAt()
-        );
+        String newHash = passwordHasher.hash(dto.getNewPassword());
+        return transactionTemplate.execute(status -> {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
+            // the old password was verified against this hash; a concurrent change invalidates that check
+            if (!checkedHash.equals(user.getPassword())) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Password was changed meanwhile, retry");
+            }
+            user.setPassword(newHash);
+            user.setUpdatedAt(LocalDateTime.now());
+            user.setCredentialsChangedAt(user.getUpdatedAt());
+            // refresh tokens would otherwise mint fresh access tokens past the revocation
+            user.getRefreshTokens().clear();
+            userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getEmail()));
+            return new PasswordChangeResponseDTO(
+                    "Password changed successfully",
+                    user.getUpdatedAt()
+            );
+        });
     }
 
     @Override
@@ -129,5 +155,6 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + userId));
         userRepository.delete(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getEmail()));
     }
 }
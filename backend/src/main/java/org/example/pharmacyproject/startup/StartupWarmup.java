@@ -0,0 +1,153 @@
+package org.example.pharmacyproject.startup;
+
+import org.example.pharmacyproject.catalog.CatalogSnapshot;
+import org.example.pharmacyproject.dosage.DosageBackfill;
+import org.example.pharmacyproject.search.DrugFacetIndex;
+import org.example.pharmacyproject.search.DrugNameTrigramIndex;
+import org.example.pharmacyproject.search.DrugSearchIndex;
+import org.example.pharmacyproject.search.DrugSuggester;
+import org.example.pharmacyproject.security.PasswordHasher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms the catalog, indexes and caches after the context has started, off the main thread, so
+ * the HTTP port opens without waiting for any of it. (Roles are still seeded before the port opens,
+ * see RoleInitializer, because registration depends on them.)
+ * <p>
+ * BCrypt cost calibration runs first and alone, since it times hashes on this machine and would
+ * pick too low a cost if the index builds competed for the cores. Then comes the catalog chain
+ * dosage backfill → snapshot load → (search index, trigram index, facets, suggestions), whose
+ * independent steps run in parallel.
+ * {@link #status()} stays {@code WARMING_UP} until every step is done, which is what
+ * {@code GET /api/ready} reports to load balancers and orchestrators. A failed step leaves the
+ * node {@code FAILED}, never ready, the same way an exception on startup used to stop it.
+ * Time from JVM start to port open and to ready is logged.
+ */
+@Component
+public class StartupWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+
+    public enum State { STARTING, WARMING_UP, READY, FAILED }
+
+    /**
+     * @param portOpenMs  JVM uptime when the HTTP port opened, or null before that
+     * @param readyMs     JVM uptime when the warm-up finished, or null before that
+     * @param stepMillis  duration of each finished warm-up step
+     */
+    public record Status(State state, Long portOpenMs, Long readyMs, Map<String, Long> stepMillis) {}
+
+    private final DosageBackfill dosageBackfill;
+    private final CatalogSnapshot catalogSnapshot;
+    private final DrugSearchIndex searchIndex;
+    private final DrugNameTrigramIndex trigramIndex;
+    private final DrugFacetIndex facetIndex;
+    private final DrugSuggester suggester;
+    private final PasswordHasher passwordHasher;
+    private final int threads;
+
+    private volatile State state = State.STARTING;
+    private volatile Long portOpenMs;
+    private volatile Long readyMs;
+    private final Map<String, Long> stepMillis = new LinkedHashMap<>();
+
+    public StartupWarmup(DosageBackfill dosageBackfill,
+                         CatalogSnapshot catalogSnapshot,
+                         DrugSearchIndex searchIndex,
+                         DrugNameTrigramIndex trigramIndex,
+                         DrugFacetIndex facetIndex,
+                         DrugSuggester suggester,
+                         PasswordHasher passwordHasher,
+                         @Value("${app.startup.warmup-threads:0}") int threads) {
+        this.dosageBackfill = dosageBackfill;
+        this.catalogSnapshot = catalogSnapshot;
+        this.searchIndex = searchIndex;
+        this.trigramIndex = trigramIndex;
+        this.facetIndex = facetIndex;
+        this.suggester = suggester;
+        this.passwordHasher = passwordHasher;
+        // the steps mostly wait on the database, so run them side by side even on a single core
+        this.threads = threads > 0 ? threads : Math.max(4, Runtime.getRuntime().availableProcessors());
+    }
+
+    @EventListener
+    public void onWebServerInitialized(WebServerInitializedEvent event) {
+        portOpenMs = uptimeMillis();
+        log.info("HTTP port {} open {} ms after JVM start", event.getWebServer().getPort(), portOpenMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        state = State.WARMING_UP;
+        long started = System.nanoTime();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "startup-warmup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        CompletableFuture<Void> warmup = step("bcrypt cost", passwordHasher::calibrate, executor)
+                .thenCompose(done -> step("dosage backfill", dosageBackfill::backfillOnStartup, executor))
+                .thenCompose(done -> step("catalog snapshot", catalogSnapshot::loadOnStartup, executor))
+                .thenCompose(done -> CompletableFuture.allOf(
+                        step("search index", searchIndex::loadOnStartup, executor),
+                        step("trigram index", trigramIndex::loadOnStartup, executor),
+                        step("facet index", facetIndex::loadOnStartup, executor),
+                        step("suggestions", suggester::loadOnStartup, executor)));
+
+        warmup.whenComplete((done, failure) -> {
+            executor.shutdown();
+            readyMs = uptimeMillis();
+            long warmupMs = (System.nanoTime() - started) / 1_000_000;
+            if (failure != null) {
+                state = State.FAILED;
+                log.error("Startup warm-up failed after {} ms; node will not report ready", warmupMs, failure);
+                return;
+            }
+            state = State.READY;
+            log.info("Startup warm-up finished in {} ms; ready {} ms after JVM start (port open at {} ms)",
+                    warmupMs, readyMs, portOpenMs);
+        });
+    }
+
+    public boolean isReady() {
+        return state == State.READY;
+    }
+
+    public Status status() {
+        synchronized (stepMillis) {
+            return new Status(state, portOpenMs, state == State.READY ? readyMs : null, new LinkedHashMap<>(stepMillis));
+        }
+    }
+
+    private CompletableFuture<Void> step(String name, Runnable task, ExecutorService executor) {
+        return CompletableFuture.runAsync(() -> {
+            long started = System.nanoTime();
+            task.run();
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            synchronized (stepMillis) {
+                stepMillis.put(name, millis);
+            }
+            log.info("Warm-up step '{}' done in {} ms", name, millis);
+        }, executor);
+    }
+
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.pharmacyproject.catalog;
+
+import org.example.pharmacyproject.dosage.DosageParser;
+import org.example.pharmacyproject.entities.Drug;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileOverlayTest {
+
+    @TempDir
+    Path dir;
+
+    private FileOverlay overlay;
+
+    @BeforeEach
+    void mapFile() throws IOException {
+        Path file = dir.resolve("catalog.bin");
+        MappedCatalog.write(file, List.of(MappedCatalogTest.drug(10), MappedCatalogTest.drug(20), MappedCatalogTest.drug(30)));
+        overlay = new FileOverlay(MappedCatalog.open(file), FileOverlayTest::decode);
+    }
+
+    @Test
+    void withoutChangesListsTheFile() {
+        assertFalse(overlay.hasChanges());
+        assertEquals(List.of(10L, 20L, 30L), ids(overlay));
+        assertConsistent(overlay);
+    }
+
+    @Test
+    void insertsBeforeBetweenAndAfterFileRecords() {
+        FileOverlay changed = overlay.with(5, entry(5, "new")).with(15, entry(15, "new")).with(40, entry(40, "new"));
+
+        assertEquals(List.of(5L, 10L, 15L, 20L, 30L, 40L), ids(changed));
+        assertEquals("new 5", changed.get(0).getName());
+        assertEquals("Drug 10", changed.get(1).getName());
+        assertEquals("new 40", changed.get(5).getName());
+        assertConsistent(changed);
+    }
+
+    @Test
+    void replacesFirstAndLastFileRecordInPlace() {
+        FileOverlay changed = overlay.with(10, entry(10, "changed")).with(30, entry(30, "changed"));
+
+        assertEquals(List.of(10L, 20L, 30L), ids(changed));
+        assertEquals(List.of("changed 10", "Drug 20", "changed 30"), names(changed));
+        assertEquals("changed 30", changed.findById(30).orElseThrow().getName());
+        assertConsistent(changed);
+    }
+
+    @Test
+    void deletesFirstAndLastFileRecord() {
+        FileOverlay changed = overlay.with(10, null).with(30, null);
+
+        assertEquals(List.of(20L), ids(changed));
+        assertTrue(changed.findById(10).isEmpty());
+        assertTrue(changed.findById(30).isEmpty());
+        assertConsistent(changed);
+    }
+
+    @Test
+    void deletesEveryFileRecordAndAddsOthers() {
+        FileOverlay changed = overlay.with(10, null).with(20, null).with(30, null)
+                .with(1, entry(1, "new")).with(99, entry(99, "new"));
+
+        assertEquals(List.of(1L, 99L), ids(changed));
+        assertConsistent(changed);
+    }
+
+    @Test
+    void deletingAnAddedDrugOrAnUnknownIdLeavesTheFileAsIs() {
+        FileOverlay changed = overlay.with(15, entry(15, "new")).with(15, null).with(25, null);
+
+        assertTrue(changed.hasChanges());
+        assertEquals(List.of(10L, 20L, 30L), ids(changed));
+        assertConsistent(changed);
+    }
+
+    @Test
+    void laterChangeOfOneIdWins() {
+        FileOverlay changed = overlay.with(20, null).with(20, entry(20, "back"));
+
+        assertEquals(List.of("Drug 10", "back 20", "Drug 30"), names(changed));
+        assertConsistent(changed);
+    }
+
+    @Test
+    void changesLeaveTheOriginalOverlayUntouched() {
+        overlay.with(10, null).with(15, entry(15, "new"));
+
+        assertFalse(overlay.hasChanges());
+        assertEquals(List.of(10L, 20L, 30L), ids(overlay));
+    }
+
+    @Test
+    void getRejectsPositionsOutsideTheList() {
+        FileOverlay changed = overlay.with(40, entry(40, "new"));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> changed.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> changed.get(4));
+    }
+
+    /**
+     * Checks findById and countBelow against the list itself for every id around the data.
+     */
+    private static void assertConsistent(FileOverlay list) {
+        List<Long> ids = ids(list);
+        for (long id = 0; id <= 100; id++) {
+            long bound = id;
+            long below = ids.stream().filter(other -> other < bound).count();
+            long upTo = ids.stream().filter(other -> other <= bound).count();
+            assertEquals(below, list.countBelow(id, false), "countBelow(" + id + ", false)");
+            assertEquals(upTo, list.countBelow(id, true), "countBelow(" + id + ", true)");
+            Optional<Drug> found = list.findById(id);
+            assertEquals(ids.contains(id), found.isPresent(), "findById(" + id + ")");
+            found.ifPresent(drug -> assertEquals(bound, drug.getId()));
+        }
+    }
+
+    private static List<Long> ids(List<Drug> drugs) {
+        List<Long> ids = new ArrayList<>();
+        for (Drug drug : drugs) {
+            ids.add(drug.getId());
+        }
+        return ids;
+    }
+
+    private static List<String> names(List<Drug> drugs) {
+        List<String> names = new ArrayList<>();
+        for (Drug drug : drugs) {
+            names.add(drug.getName());
+        }
+        return names;
+    }
+
+    private static CatalogSnapshot.Entry entry(long id, String name) {
+        return new CatalogSnapshot.Entry(id, name + " " + id, 0, 0, null, null, false, DosageParser.ParsedDosage.EMPTY);
+    }
+
+    private static Drug decode(CatalogSnapshot.Entry entry) {
+        return new Drug(entry.id, entry.name, null, null, entry.dosage, entry.description, entry.prescriptionRequired,
+                DosageParser.ParsedDosage.EMPTY);
+    }
+}
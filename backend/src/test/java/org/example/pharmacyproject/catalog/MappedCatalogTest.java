@@ -0,0 +1,126 @@
+package org.example.pharmacyproject.catalog;
+
+import org.example.pharmacyproject.dosage.DosageParser;
+import org.example.pharmacyproject.entities.Drug;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedCatalogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writeThenOpenReturnsEveryField() throws IOException {
+        Path file = dir.resolve("catalog.bin");
+        Drug ibuprofen = new Drug(3L, "Ibuprofen", "NSAID", "Acme", "400 mg tablet twice daily", "Pain relief", false,
+                new DosageParser.ParsedDosage(400.0, "mg", "tablet", "twice daily"));
+        Drug bare = new Drug(7L, "Żółć", null, "Acme", null, null, true, DosageParser.ParsedDosage.EMPTY);
+        MappedCatalog.write(file, List.of(ibuprofen, bare));
+
+        MappedCatalog catalog = MappedCatalog.open(file);
+
+        assertEquals(2, catalog.size());
+        Drug first = catalog.drugAt(0);
+        assertEquals(3L, first.getId());
+        assertEquals("Ibuprofen", first.getName());
+        assertEquals("NSAID", first.getType());
+        assertEquals("Acme", first.getManufacturer());
+        assertEquals("400 mg tablet twice daily", first.getDosage());
+        assertEquals("Pain relief", first.getDescription());
+        assertFalse(first.isPrescriptionRequired());
+        assertEquals(new DosageParser.ParsedDosage(400.0, "mg", "tablet", "twice daily"), first.parsedDosage());
+
+        Drug second = catalog.findById(7L).orElseThrow();
+        assertEquals("Żółć", second.getName());
+        assertNull(second.getType());
+        assertNull(second.getDosage());
+        assertNull(second.getDescription());
+        assertTrue(second.isPrescriptionRequired());
+        assertEquals(DosageParser.ParsedDosage.EMPTY, second.parsedDosage());
+    }
+
+    @Test
+    void parsedDosageIsStoredNotReparsed() throws IOException {
+        Path file = dir.resolve("catalog.bin");
+        // the stored columns win even where they disagree with what the parser would read from the text
+        DosageParser.ParsedDosage stored = new DosageParser.ParsedDosage(5.0, "mL", "syrup", null);
+        MappedCatalog.write(file, List.of(new Drug(1L, "Syrup", null, null, "200 mg tablet", null, false, stored)));
+
+        assertEquals(stored, MappedCatalog.open(file).drugAt(0).parsedDosage());
+    }
+
+    @Test
+    void indexOfFollowsBinarySearchContract() throws IOException {
+        Path file = dir.resolve("catalog.bin");
+        MappedCatalog.write(file, List.of(drug(10), drug(20), drug(30)));
+        MappedCatalog catalog = MappedCatalog.open(file);
+
+        assertEquals(0, catalog.indexOf(10));
+        assertEquals(2, catalog.indexOf(30));
+        assertEquals(-1, catalog.indexOf(5));
+        assertEquals(-2, catalog.indexOf(15));
+        assertEquals(-4, catalog.indexOf(35));
+        assertTrue(catalog.findById(15).isEmpty());
+    }
+
+    @Test
+    void textContainsMatchesNameManufacturerAndDescription() throws IOException {
+        Path file = dir.resolve("catalog.bin");
+        MappedCatalog.write(file, List.of(
+                new Drug(1L, "Ibuprofen", "NSAID", "Acme", null, "Fever", false, DosageParser.ParsedDosage.EMPTY),
+                new Drug(2L, "Żółć", null, null, null, null, false, DosageParser.ParsedDosage.EMPTY)));
+        MappedCatalog catalog = MappedCatalog.open(file);
+
+        assertTrue(catalog.textContains(0, MappedCatalog.queryBytes("IBU")));
+        assertTrue(catalog.textContains(0, MappedCatalog.queryBytes("acme")));
+        assertTrue(catalog.textContains(0, MappedCatalog.queryBytes("fev")));
+        assertFalse(catalog.textContains(0, MappedCatalog.queryBytes("nsaid")));
+        assertTrue(catalog.textContains(1, MappedCatalog.queryBytes("ŻÓŁ")));
+    }
+
+    @Test
+    void writeRejectsIdsOutOfOrder() {
+        Path file = dir.resolve("catalog.bin");
+        assertThrows(IllegalArgumentException.class, () -> MappedCatalog.write(file, List.of(drug(2), drug(1))));
+        assertThrows(IllegalArgumentException.class, () -> MappedCatalog.write(file, List.of(drug(2), drug(2))));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void openRejectsOtherFormatVersions() throws IOException {
+        Path file = dir.resolve("catalog.bin");
+        MappedCatalog.write(file, List.of(drug(1)));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, MappedCatalog.FORMAT_VERSION - 1), 4);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> MappedCatalog.open(file));
+    }
+
+    @Test
+    void openRejectsForeignFiles() throws IOException {
+        Path file = dir.resolve("catalog.bin");
+        Files.writeString(file, "definitely not a drug catalog file");
+
+        assertThrows(IllegalArgumentException.class, () -> MappedCatalog.open(file));
+    }
+
+    static Drug drug(long id) {
+        return new Drug(id, "Drug " + id, null, null, null, null, false, DosageParser.ParsedDosage.EMPTY);
+    }
+}
@@ -1,9 +1,22 @@
 import api from '../utils/axios';
-import { DrugDto } from '../types/drug';
+import { CursorPage, DrugBatch, DrugChanges, DrugDto, DrugListFilters, DrugSuggestion, DrugSummaryDto } from '../types/drug';
 
 // Protected endpoints (require authentication)
-export const listDrugs = async (): Promise<DrugDto[]> => {
-    const { data } = await api.get<DrugDto[]>('/drugs');
+// One keyset page; pass the previous page's nextCursor to get the next one (the server caps pages at 200)
+export const listDrugs = async (
+    cursor: string | null = null,
+    filters: DrugListFilters = {}
+): Promise<CursorPage<DrugSummaryDto>> => {
+    const params: Record<string, string | number | boolean> = { limit: 50 };
+    for (const [key, value] of Object.entries(filters)) {
+        if (value !== undefined && value !== null && value !== '') {
+            params[key] = value;
+        }
+    }
+    if (cursor) {
+        params.cursor = cursor;
+    }
+    const { data } = await api.get<CursorPage<DrugSummaryDto>>('/drugs', { params });
     return data;
 };
 
@@ -12,13 +25,35 @@ export const getDrugById = async (id: number): Promise<DrugDto> => {
     return data;
 };
 
+// One request for many cards; long id lists go in a POST body to stay clear of URL length limits
+export const getDrugsByIds = async (ids: number[]): Promise<DrugBatch> => {
+    if (ids.length > 100) {
+        const { data } = await api.post<DrugBatch>('/drugs/batch', ids);
+        return data;
+    }
+    const { data } = await api.get<DrugBatch>('/drugs/batch', { params: { ids: ids.join(',') } });
+    return data;
+};
+
+// Changes since the version from the previous sync; on fullResyncRequired reload the catalog instead
+export const getDrugChanges = async (since: number): Promise<DrugChanges> => {
+    const { data } = await api.get<DrugChanges>('/drugs/changes', { params: { since } });
+    return data;
+};
+
 // Public endpoints (no authentication required)
-export const getPublicDrugs = async (): Promise<DrugDto[]> => {
-    const { data } = await api.get<DrugDto[]>('/public/drugs');
+export const getPublicDrugs = async (): Promise<DrugSummaryDto[]> => {
+    const { data } = await api.get<DrugSummaryDto[]>('/public/drugs');
+    return data;
+};
+
+// Ranked server-side search; page is zero-based and a page shorter than 20 is the last one
+export const searchPublicDrugs = async (query: string, page = 0): Promise<DrugDto[]> => {
+    const { data } = await api.get<DrugDto[]>('/public/drugs/search', { params: { query, page } });
     return data;
 };
 
-export const searchPublicDrugs = async (query: string): Promise<DrugDto[]> => {
-    const { data } = await api.get<DrugDto[]>(`/public/drugs/search?query=${encodeURIComponent(query)}`);
+export const suggestDrugs = async (prefix: string, limit = 10): Promise<DrugSuggestion[]> => {
+    const { data } = await api.get<DrugSuggestion[]>('/public/drugs/suggest', { params: { prefix, limit } });
     return data;
 };
@@ -12,11 +12,11 @@ import {
   CardActions
 } from '@mui/material';
 import { Link as RouterLink } from 'react-router-dom';
-import { DrugDto } from '../../types/drug';
+import { DrugDto, DrugSummaryDto } from '../../types/drug';
 import '../../styles/globals.css';
 
 interface PublicSearchResultsProps {
-  results: DrugDto[];
+  results: (DrugSummaryDto | DrugDto)[];
   searchQuery: string;
   loading: boolean;
 }
@@ -74,7 +74,7 @@ const PublicSearchResults: React.FC<PublicSearchResultsProps> = ({
 
                 <Divider className="my-2" />
 
-                {drug.description && (
+                {'description' in drug && drug.description && (
                   <Typography variant="body2" className="mb-3 text-sm" sx={{
                     display: '-webkit-box',
                     WebkitLineClamp: 3,
@@ -1,6 +1,6 @@
-import React, { useEffect, useState } from 'react';
-import { listDrugs } from '../../api/drug';
-import { DrugDto } from '../../types/drug';
+import React, { useEffect, useRef, useState } from 'react';
+import { listDrugs, searchPublicDrugs } from '../../api/drug';
+import { DrugSummaryDto } from '../../types/drug';
 import {
     Box,
     Container,
@@ -21,17 +21,22 @@ import Alert from '../../components/ui/Alert';
 import '../../styles/globals.css';
 
 const DrugListPage: React.FC = () => {
-    const [drugs, setDrugs] = useState<DrugDto[]>([]);
-    const [filteredDrugs, setFilteredDrugs] = useState<DrugDto[]>([]);
+    // the catalog is browsed one keyset page at a time; search asks the server instead of filtering pages
+    const [drugs, setDrugs] = useState<DrugSummaryDto[]>([]);
+    const [nextCursor, setNextCursor] = useState<string | null>(null);
+    const [loadingMore, setLoadingMore] = useState(false);
+    const [searchResults, setSearchResults] = useState<DrugSummaryDto[] | null>(null);
     const [searchQuery, setSearchQuery] = useState('');
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState<string | null>(null);
+    // the latest query, so a slow response for an older one is dropped
+    const latestQuery = useRef('');
 
     useEffect(() => {
         listDrugs()
-            .then((data) => {
-                setDrugs(data);
-                setFilteredDrugs(data);
+            .then((page) => {
+                setDrugs(page.items);
+                setNextCursor(page.hasMore ? page.nextCursor : null);
             })
             .catch((err) => {
                 console.error(err);
@@ -40,24 +45,46 @@ const DrugListPage: React.FC = () => {
             .finally(() => setLoading(false));
     }, []);
 
+    const loadMore = () => {
+        if (!nextCursor || loadingMore) {
+            return;
+        }
+        setLoadingMore(true);
+        listDrugs(nextCursor)
+            .then((page) => {
+                setDrugs((loaded) => [...loaded, ...page.items]);
+                setNextCursor(page.hasMore ? page.nextCursor : null);
+            })
+            .catch((err) => {
+                console.error(err);
+                setError('Failed to load more drugs.');
+            })
+            .finally(() => setLoadingMore(false));
+    };
+
     const handleSearch = (query: string) => {
         setSearchQuery(query);
+        latestQuery.current = query;
 
         if (!query.trim()) {
-            setFilteredDrugs(drugs);
+            setSearchResults(null);
             return;
         }
 
-        const normalizedQuery = query.toLowerCase().trim();
-        const filtered = drugs.filter(drug =>
-            drug.name.toLowerCase().includes(normalizedQuery) ||
-            (drug.manufacturer && drug.manufacturer.toLowerCase().includes(normalizedQuery)) ||
-            (drug.description && drug.description.toLowerCase().includes(normalizedQuery))
-        );
-
-        setFilteredDrugs(filtered);
+        searchPublicDrugs(query.trim())
+            .then((data) => {
+                if (latestQuery.current === query) {
+                    setSearchResults(data);
+                }
+            })
+            .catch((err) => {
+                console.error(err);
+                setError('Failed to search drugs.');
+            });
     };
 
+    const filteredDrugs = searchResults ?? drugs;
+
     if (loading) {
         return <Spinner text="Loading medications..." />;
     }
@@ -150,6 +177,14 @@ const DrugListPage: React.FC = () => {
                     ))}
                 </Grid>
             )}
+
+            {searchResults === null && nextCursor && (
+                <Box className="flex justify-center mt-6">
+                    <Button variant="outlined" onClick={loadMore} disabled={loadingMore}>
+                        {loadingMore ? 'Loading…' : 'Load more'}
+                    </Button>
+                </Box>
+            )}
         </Container>
     );
 };
@@ -1,5 +1,6 @@
 import React, { useEffect, useState } from 'react';
 import {
+    Autocomplete,
     Box,
     TextField,
     FormControl,
@@ -10,9 +11,9 @@ import {
     FormControlLabel,
     Button,
 } from '@mui/material';
-import { listDrugs } from '../../api/drug';
+import { searchPublicDrugs, suggestDrugs } from '../../api/drug';
+import { DrugDto } from '../../types/drug';
 import {PrescriptionCreateRequestDTO, PrescriptionDTO} from "@/types/prescription";
-import Spinner from '../../components/ui/Spinner';
 import Alert from '../../components/ui/Alert';
 import '../../styles/globals.css';
 
@@ -23,7 +24,11 @@ interface Props {
 }
 
 const PrescriptionForm: React.FC<Props> = ({ initialData, onSubmit }) => {
-    const [drugs, setDrugs] = useState<{ id: number; name: string }[]>([]);
+    // The drug is picked by name from server suggestions, then resolved to an id by searching for that
+    // name, so the form never downloads the catalog.
+    const [drugName, setDrugName] = useState<string>(initialData?.drugName || '');
+    const [nameSuggestions, setNameSuggestions] = useState<string[]>([]);
+    const [candidates, setCandidates] = useState<DrugDto[]>([]);
     const [form, setForm] = useState<PrescriptionCreateRequestDTO>({
         drugId: (initialData as any)?.drugId || 0,
         dosage: initialData?.dosage || '',
@@ -36,18 +41,48 @@ const PrescriptionForm: React.FC<Props> = ({ initialData, onSubmit }) => {
             ? new Date(initialData.expiresAt).toISOString().slice(0, 16)
             : '',
     });
-    const [loadingDrugs, setLoadingDrugs] = useState(true);
     const [submitting, setSubmitting] = useState(false);
     const [error, setError] = useState<string | null>(null);
 
     useEffect(() => {
-        listDrugs()
-            .then((data) =>
-                setDrugs(data.map((d) => ({ id: d.id, name: d.name })))
-            )
-            .catch((e) => setError('Failed to load drugs'))
-            .finally(() => setLoadingDrugs(false));
-    }, []);
+        const prefix = drugName.trim();
+        if (prefix.length < 2) {
+            setNameSuggestions([]);
+            return;
+        }
+        let cancelled = false;
+        const timer = setTimeout(() => {
+            suggestDrugs(prefix)
+                .then((suggestions) => {
+                    if (!cancelled) {
+                        setNameSuggestions(suggestions.filter((s) => s.kind === 'DRUG').map((s) => s.text));
+                    }
+                })
+                .catch(() => setError('Failed to load drug suggestions'));
+        }, 250);
+        return () => {
+            cancelled = true;
+            clearTimeout(timer);
+        };
+    }, [drugName]);
+
+    const handleDrugNameSelected = (name: string | null) => {
+        setCandidates([]);
+        setForm((f) => ({ ...f, drugId: 0 }));
+        if (!name) {
+            return;
+        }
+        searchPublicDrugs(name)
+            .then((found) => {
+                const exact = found.filter((d) => d.name.toLowerCase() === name.toLowerCase());
+                const matches = exact.length > 0 ? exact : found;
+                setCandidates(matches);
+                if (matches.length === 1) {
+                    setForm((f) => ({ ...f, drugId: matches[0].id }));
+                }
+            })
+            .catch(() => setError('Failed to load drugs'));
+    };
 
     const handleChange = (
         e: React.ChangeEvent<HTMLInputElement | HTMLTextAreaElement>
@@ -70,6 +105,10 @@ const PrescriptionForm: React.FC<Props> = ({ initialData, onSubmit }) => {
 
     const handleSubmit = async (e: React.FormEvent) => {
         e.preventDefault();
+        if (!form.drugId) {
+            setError('Choose a drug from the suggestions');
+            return;
+        }
         setSubmitting(true);
         setError(null);
         try {
@@ -81,10 +120,6 @@ const PrescriptionForm: React.FC<Props> = ({ initialData, onSubmit }) => {
         }
     };
 
-    if (loadingDrugs) {
-        return <Spinner text="Loading medications..." />;
-    }
-
     return (
         <Box component="form" onSubmit={handleSubmit} sx={{ maxWidth: 600, mx: 'auto' }}>
             {error && (
@@ -96,23 +131,43 @@ const PrescriptionForm: React.FC<Props> = ({ initialData, onSubmit }) => {
                 />
             )}
 
-            <FormControl fullWidth sx={{ mb: 2 }}>
-                <InputLabel id="drug-select-label">Drug</InputLabel>
-                <Select
-                    labelId="drug-select-label"
-                    value={form.drugId}
-                    label="Drug"
-                    onChange={handleSelectChange}
-                    name="drugId"
-                    required
-                >
-                    {drugs.map((d) => (
-                        <MenuItem key={d.id} value={d.id}>
-                            {d.name}
-                        </MenuItem>
-                    ))}
-                </Select>
-            </FormControl>
+            <Autocomplete
+                freeSolo
+                options={nameSuggestions}
+                filterOptions={(options) => options}
+                inputValue={drugName}
+                onInputChange={(_, value, reason) => {
+                    setDrugName(value);
+                    // typing over a chosen drug un-chooses it until a suggestion is picked again
+                    if (reason === 'input') {
+                        setCandidates([]);
+                        setForm((f) => ({ ...f, drugId: 0 }));
+                    }
+                }}
+                onChange={(_, value) => handleDrugNameSelected(value)}
+                renderInput={(params) => <TextField {...params} label="Drug" required />}
+                sx={{ mb: 2 }}
+            />
+
+            {candidates.length > 1 && (
+                <FormControl fullWidth sx={{ mb: 2 }}>
+                    <InputLabel id="drug-select-label">Product</InputLabel>
+                    <Select
+                        labelId="drug-select-label"
+                        value={form.drugId || ''}
+                        label="Product"
+                        onChange={handleSelectChange}
+                        name="drugId"
+                        required
+                    >
+                        {candidates.map((d) => (
+                            <MenuItem key={d.id} value={d.id}>
+                                {d.name} — {d.manufacturer}
+                            </MenuItem>
+                        ))}
+                    </Select>
+                </FormControl>
+            )}
 
             <TextField
                 fullWidth
@@ -10,7 +10,7 @@ import {
 } from '@mui/material';
 import { Link as RouterLink, useLocation, useNavigate } from 'react-router-dom';
 import { getPublicDrugs, listDrugs, searchPublicDrugs } from '../api/drug';
-import { DrugDto } from '../types/drug';
+import { DrugDto, DrugSummaryDto } from '../types/drug';
 import PublicSearchResults from '../components/Search/PublicSearchResults';
 import SearchBar from '../components/ui/SearchBar';
 import Spinner from '../components/ui/Spinner';
@@ -26,7 +26,7 @@ const SearchResults: React.FC = () => {
   const { token } = useAuth();
 
   const [searchQuery, setSearchQuery] = useState<string>(initialQuery);
-  const [results, setResults] = useState<DrugDto[]>([]);
+  const [results, setResults] = useState<(DrugSummaryDto | DrugDto)[]>([]);
   const [loading, setLoading] = useState<boolean>(true);
   const [searching, setSearching] = useState<boolean>(!!initialQuery);
   const [error, setError] = useState<string | null>(null);
@@ -42,7 +42,8 @@ const SearchResults: React.FC = () => {
   const fetchInitialDrugs = useCallback(async () => {
     if (loading) {
       try {
-        const data = token ? await listDrugs() : await getPublicDrugs();
+        // the first catalog page only; a search narrows it on the server
+        const data = token ? (await listDrugs()).items : await getPublicDrugs();
         setResults(data);
       } catch (err) {
         console.error('Failed to load drugs:', err);
@@ -58,7 +59,7 @@ const SearchResults: React.FC = () => {
     fetchInitialDrugsRef.current = fetchInitialDrugs;
   }, [fetchInitialDrugs]);
 
-  // Perform search using the appropriate endpoint based on auth status
+  // Perform search on the server, the same endpoint whether or not the user is logged in
   const performSearch = useCallback(async (query: string) => {
     console.log('performSearch called with query:', query);
     console.log('performSearch deps:', {
@@ -97,27 +98,13 @@ const SearchResults: React.FC = () => {
     setError(null);
 
     try {
-      // Use the appropriate API based on authentication status
-      if (token) {
-        // If user is logged in, we could implement a protected search endpoint
-        // For now, we'll filter the full drug list on the client
-        const allDrugs = await listDrugs();
-        const filtered = filterDrugs(query, allDrugs);
-        setResults(filtered);
+      // Logged in or not, the server search ranks the matches; the catalog is never downloaded for it
+      const data = await searchPublicDrugs(query);
+      setResults(data);
 
-        // If no results found, remember this query to avoid searching again
-        if (filtered.length === 0) {
-          setSearchedQueries(prev => new Set([...prev, query.trim().toLowerCase()]));
-        }
-      } else {
-        // For public users, use the dedicated public search endpoint
-        const data = await searchPublicDrugs(query);
-        setResults(data);
-
-        // If no results found, remember this query to avoid searching again
-        if (data.length === 0) {
-          setSearchedQueries(prev => new Set([...prev, query.trim().toLowerCase()]));
-        }
+      // If no results found, remember this query to avoid searching again
+      if (data.length === 0) {
+        setSearchedQueries(prev => new Set([...prev, query.trim().toLowerCase()]));
       }
     } catch (err) {
       console.error('Error searching drugs:', err);
@@ -159,20 +146,6 @@ const SearchResults: React.FC = () => {
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [initialQuery, token, performSearch]);
 
-  // Client-side filtering function (used for authenticated users)
-  const filterDrugs = (query: string, drugList: DrugDto[]): DrugDto[] => {
-    if (!query.trim()) {
-      return drugList;
-    }
-
-    const normalizedQuery = query.toLowerCase().trim();
-    return drugList.filter(drug =>
-      drug.name.toLowerCase().includes(normalizedQuery) ||
-      (drug.manufacturer && drug.manufacturer.toLowerCase().includes(normalizedQuery)) ||
-      (drug.description && drug.description.toLowerCase().includes(normalizedQuery))
-    );
-  };
-
   // Handle search submission from the search bar
   const handleSearch = (query: string) => {
     // Don't search again if this exact query has been searched before and found no results
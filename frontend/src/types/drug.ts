@@ -1,9 +1,50 @@
-export interface DrugDto {
+// Card-sized view returned by the list endpoints; fetch the drug by id for dosage and description
+export interface DrugSummaryDto {
     id: number;
     name: string;
     type: string;
     manufacturer: string;
+    prescriptionRequired: boolean;
+}
+
+export interface DrugDto extends DrugSummaryDto {
     dosage: string;
     description: string;
-    prescriptionRequired: boolean;
+}
+
+export interface CursorPage<T> {
+    items: T[];
+    nextCursor: string | null;
+    hasMore: boolean;
+}
+
+// Optional filters of GET /api/drugs; strength bounds are in the base unit (mg, mL or IU)
+export interface DrugListFilters {
+    limit?: number;
+    direction?: 'asc' | 'desc';
+    type?: string;
+    manufacturer?: string;
+    prescriptionRequired?: boolean;
+    strengthMin?: number;
+    strengthMax?: number;
+    unit?: string;
+    form?: string;
+}
+
+// Autocomplete entry from /api/public/drugs/suggest
+export interface DrugSuggestion {
+    text: string;
+    kind: 'DRUG' | 'MANUFACTURER';
+}
+
+export interface DrugBatch {
+    drugs: DrugDto[];
+    missing: number[];
+}
+
+export interface DrugChanges {
+    version: number;
+    fullResyncRequired: boolean;
+    upserts: DrugDto[];
+    deletions: number[];
 }